@@ -0,0 +1,62 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The sales summary shown by ExcelViewer.displayAnalysis: revenue, units, unique products
+ * and customers. Compares the original record streams with the PurchaseTable columns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class AggregationBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    private List<PurchaseRecord> records;
+    private PurchaseTable table;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        String filePath = new PurchaseWorkbookGenerator(rows, 8, 0.0, 42).writeTempFile().toString();
+        records = StreamingExcelReader.readExcelFile(filePath);
+        table = PurchaseTable.from(records);
+    }
+
+    @Benchmark
+    public void recordStreams(Blackhole blackhole) {
+        blackhole.consume(records.stream()
+                .filter(r -> r.getTotalCost() != null)
+                .map(PurchaseRecord::getTotalCost)
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+        blackhole.consume(records.stream().mapToInt(PurchaseRecord::getQuantity).sum());
+        blackhole.consume(records.stream()
+                .map(PurchaseRecord::getItemName)
+                .filter(name -> name != null && !name.trim().isEmpty())
+                .distinct()
+                .count());
+        blackhole.consume(records.stream()
+                .map(PurchaseRecord::getVendor)
+                .filter(vendor -> vendor != null && !vendor.trim().isEmpty())
+                .distinct()
+                .count());
+    }
+
+    @Benchmark
+    public void tableColumns(Blackhole blackhole) {
+        blackhole.consume(table.getTotalRevenueCents());
+        blackhole.consume(table.getTotalQuantity());
+        blackhole.consume(table.getUniqueItemCount());
+        blackhole.consume(table.getUniqueVendorCount());
+    }
+}
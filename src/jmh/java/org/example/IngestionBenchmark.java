@@ -0,0 +1,75 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-file benchmarks: open + parse + decode/analyze a generated workbook.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class IngestionBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"8", "24"})
+    public int columns;
+
+    @Param({"0.0", "0.5"})
+    public double formulaDensity;
+
+    private String filePath;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        filePath = new PurchaseWorkbookGenerator(rows, columns, formulaDensity, 42).writeTempFile().toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Files.deleteIfExists(Path.of(filePath));
+    }
+
+    @Benchmark
+    public List<PurchaseRecord> readExcelFile() throws IOException {
+        return ExcelReaderUtility.readExcelFile(filePath);
+    }
+
+    @Benchmark
+    public ExcelReaderUtility.ExcelAnalysis analyzeExcelFile() throws IOException {
+        return ExcelReaderUtility.analyzeExcelFile(filePath);
+    }
+
+    @Benchmark
+    public ExcelReaderUtility.LoadResult load() throws IOException {
+        return ExcelReaderUtility.load(filePath);
+    }
+
+    @Benchmark
+    public ExcelReaderUtility.LoadResult loadCachedFormulas() throws IOException {
+        return ExcelReaderUtility.load(filePath, new ExcelReadOptions().setFormulaMode(FormulaMode.CACHED_ONLY));
+    }
+
+    @Benchmark
+    public ExcelReaderUtility.LoadResult loadParallel() throws IOException {
+        return ExcelReaderUtility.load(filePath, ExcelReadOptions.parallel());
+    }
+
+    @Benchmark
+    public List<PurchaseRecord> readStreaming() throws IOException {
+        List<PurchaseRecord> records = new ArrayList<>();
+        StreamingExcelReader.readExcelFile(filePath, records::add);
+        return records;
+    }
+}
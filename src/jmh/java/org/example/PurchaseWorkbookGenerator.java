@@ -0,0 +1,110 @@
+package org.example;
+
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Writes synthetic purchase-history workbooks shaped like the real exports:
+ * the same header names, a date in the first column, repeated products and customers.
+ * Used by the benchmarks; rows are written with SXSSF so large files are cheap to create.
+ */
+public class PurchaseWorkbookGenerator {
+
+    private static final String[] HEADERS = {"Sale Date", "Invoice Number", "Procuct Name", "Customer Name", "SKU", "Qty Sold", "Unit Price", "Total Amount"};
+
+    private final int rows;
+    private final int extraColumns;
+    private final double formulaDensity;
+    private final long seed;
+
+    /**
+     * @param rows           Number of data rows
+     * @param columns        Total number of columns; anything above the 8 standard ones is filler text/numbers
+     * @param formulaDensity Fraction of rows (0..1) whose Total Amount is a formula instead of a value
+     * @param seed           Random seed, so runs with the same parameters produce the same file
+     */
+    public PurchaseWorkbookGenerator(int rows, int columns, double formulaDensity, long seed) {
+        this.rows = rows;
+        this.extraColumns = Math.max(0, columns - HEADERS.length);
+        this.formulaDensity = formulaDensity;
+        this.seed = seed;
+    }
+
+    /**
+     * Writes the workbook to a new temporary file and returns its path.
+     */
+    public Path writeTempFile() throws IOException {
+        Path file = Files.createTempFile("purchase-history-" + rows + "-", ".xlsx");
+        file.toFile().deleteOnExit();
+        write(file);
+        return file;
+    }
+
+    public void write(Path file) throws IOException {
+        Random random = new Random(seed);
+        String[] products = new String[Math.max(10, rows / 50)];
+        for (int i = 0; i < products.length; i++) {
+            products[i] = "Product " + i + " - " + (1 + random.nextInt(25)) + " lb Pack";
+        }
+        String[] customers = new String[Math.max(5, rows / 500)];
+        for (int i = 0; i < customers.length; i++) {
+            customers[i] = "Customer " + i + " / Store " + random.nextInt(100);
+        }
+        long startDay = LocalDate.of(2024, 1, 1).toEpochDay();
+
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(1000);
+             FileOutputStream out = new FileOutputStream(file.toFile())) {
+            workbook.setCompressTempFiles(true);
+            Sheet sheet = workbook.createSheet("Purchases");
+
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("m/d/yyyy"));
+
+            Row header = sheet.createRow(0);
+            for (int c = 0; c < HEADERS.length; c++) {
+                header.createCell(c).setCellValue(HEADERS[c]);
+            }
+            for (int c = 0; c < extraColumns; c++) {
+                header.createCell(HEADERS.length + c).setCellValue("Extra " + (c + 1));
+            }
+
+            for (int r = 1; r <= rows; r++) {
+                Row row = sheet.createRow(r);
+                int product = random.nextInt(products.length);
+                int quantity = 1 + random.nextInt(60);
+                double price = (100 + product * 37 % 40000) / 100.0;
+
+                Cell date = row.createCell(0);
+                date.setCellValue(LocalDate.ofEpochDay(startDay + r / 100));
+                date.setCellStyle(dateStyle);
+                row.createCell(1).setCellValue("INV" + (100000 + r / 5));
+                row.createCell(2).setCellValue(products[product]);
+                row.createCell(3).setCellValue(customers[random.nextInt(customers.length)]);
+                row.createCell(4).setCellValue("SKU" + product);
+                row.createCell(5).setCellValue(quantity);
+                row.createCell(6).setCellValue(price);
+                if (random.nextDouble() < formulaDensity) {
+                    row.createCell(7).setCellFormula("ROUND(F" + (r + 1) + "*G" + (r + 1) + ",2)");
+                } else {
+                    row.createCell(7).setCellValue(Math.round(quantity * price * 100) / 100.0);
+                }
+                for (int c = 0; c < extraColumns; c++) {
+                    if (c % 2 == 0) {
+                        row.createCell(HEADERS.length + c).setCellValue("note " + random.nextInt(1000));
+                    } else {
+                        row.createCell(HEADERS.length + c).setCellValue(random.nextInt(10000));
+                    }
+                }
+            }
+
+            workbook.write(out);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.example;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning one already-parsed row into a PurchaseRecord (createPurchaseRecord).
+ * The workbook is opened once per trial; each invocation decodes the next row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowDecodeBenchmark {
+
+    @Param({"8", "24"})
+    public int columns;
+
+    @Param({"0.0", "1.0"})
+    public double formulaDensity;
+
+    @Param({"EVALUATE", "CACHED_ONLY"})
+    public FormulaMode formulaMode;
+
+    private XSSFWorkbook workbook;
+    private Sheet sheet;
+    private FormulaResolver formulaResolver;
+    private DateDecoder dateDecoder;
+    private ColumnBindings bindings;
+    private int rowCount;
+    private int nextRow;
+
+    @Setup(Level.Trial)
+    public void open() throws IOException {
+        String filePath = new PurchaseWorkbookGenerator(10000, columns, formulaDensity, 42).writeTempFile().toString();
+        try (FileInputStream fis = new FileInputStream(filePath)) {
+            workbook = new XSSFWorkbook(fis);
+        }
+        sheet = workbook.getSheetAt(0);
+        formulaResolver = new FormulaResolver(workbook, formulaMode, LoadMetrics.NOOP);
+        dateDecoder = DateDecoder.forWorkbook(workbook);
+        bindings = ColumnBindings.resolve(ExcelReaderUtility.createColumnMap(sheet.getRow(0)));
+        rowCount = sheet.getLastRowNum();
+        nextRow = 1;
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        workbook.close();
+    }
+
+    @Benchmark
+    public PurchaseRecord createPurchaseRecord() {
+        Row row = sheet.getRow(nextRow);
+        nextRow = nextRow == rowCount ? 1 : nextRow + 1;
+        return ExcelReaderUtility.createPurchaseRecord(row, bindings, formulaResolver, dateDecoder);
+    }
+}
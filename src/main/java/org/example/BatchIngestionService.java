@@ -0,0 +1,226 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless ingestion of many purchase-history workbooks at once.
+ * Files are read with the streaming reader on a fixed worker pool. Records from all files are
+ * merged in file order and a per-file report is kept. Only a window of threads * 2 files is
+ * read ahead of the merge, so a slow file holds back at most that many finished results
+ * rather than the records of every later file. The merged records of the whole batch are
+ * returned in memory.
+ * All files share one set of string dictionaries, so names repeated across files are stored once.
+ */
+public class BatchIngestionService {
+
+    private final int threads;
+    private final LoadMetrics metrics;
+
+    /**
+     * @param threads Number of files read concurrently
+     */
+    public BatchIngestionService(int threads) {
+        this(threads, LoadMetrics.NOOP);
+    }
+
+    /**
+     * @param threads Number of files read concurrently
+     * @param metrics Receives timings, row counts and row errors of every file
+     */
+    public BatchIngestionService(int threads, LoadMetrics metrics) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1, was " + threads);
+        }
+        this.threads = threads;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Ingests every .xlsx file in a directory, or every file matching a glob such as
+     * "drops/2025-*.xlsx".
+     *
+     * @param directoryOrGlob Directory path or glob pattern
+     * @return Merged records and per-file results
+     * @throws IOException if the directory cannot be listed
+     */
+    public BatchResult ingest(String directoryOrGlob) throws IOException {
+        return ingest(findFiles(directoryOrGlob));
+    }
+
+    /**
+     * Ingests the given files concurrently.
+     *
+     * @param files Workbooks to read
+     * @return Merged records (in the order of files) and per-file results
+     */
+    public BatchResult ingest(List<Path> files) {
+        long start = System.nanoTime();
+        PurchaseDictionaries dictionaries = new PurchaseDictionaries();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        int window = threads * 2;
+        Deque<Future<FileResult>> inFlight = new ArrayDeque<>(); // Submitted, not yet merged, in file order
+        try {
+            List<FileResult> results = new ArrayList<>();
+            List<PurchaseRecord> records = new ArrayList<>();
+            int submitted = 0;
+            while (submitted < files.size() || !inFlight.isEmpty()) {
+                while (submitted < files.size() && inFlight.size() < window) {
+                    Path file = files.get(submitted++);
+                    inFlight.add(executor.submit(() -> ingestFile(file, dictionaries, metrics)));
+                }
+                FileResult result = inFlight.remove().get();
+                results.add(result);
+                records.addAll(result.records);
+                result.records = Collections.emptyList(); // Merged, no need to keep a second reference
+            }
+
+            return new BatchResult(records, results, dictionaries, System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch ingestion interrupted", e);
+        } catch (ExecutionException e) {
+            // ingestFile catches its own errors, so this only happens on an unexpected failure
+            throw new IllegalStateException("Batch ingestion failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads one file, capturing any error instead of failing the whole batch.
+     */
+    private static FileResult ingestFile(Path file, PurchaseDictionaries dictionaries, LoadMetrics metrics) {
+        long start = System.nanoTime();
+        List<PurchaseRecord> records = new ArrayList<>();
+        String error = null;
+        try {
+            StreamingExcelReader.readExcelFile(file.toString(), records::add, dictionaries, metrics);
+        } catch (Exception e) {
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            records.clear();
+        }
+        return new FileResult(file, records, System.nanoTime() - start, error);
+    }
+
+    /**
+     * Lists the .xlsx files of a directory, or the files matching a glob, sorted by name.
+     * Excel lock files ("~$...") are skipped.
+     */
+    static List<Path> findFiles(String directoryOrGlob) throws IOException {
+        Path path = Paths.get(directoryOrGlob);
+        Path directory;
+        String pattern;
+        if (Files.isDirectory(path)) {
+            directory = path;
+            pattern = "*.xlsx";
+        } else {
+            directory = path.getParent() != null ? path.getParent() : Paths.get(".");
+            pattern = path.getFileName().toString();
+        }
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, pattern)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file) && !file.getFileName().toString().startsWith("~$")) {
+                    files.add(file);
+                }
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * Outcome of reading a single file.
+     */
+    public static class FileResult {
+        private final Path file;
+        private List<PurchaseRecord> records;
+        private final int recordCount;
+        private final long nanos;
+        private final String error;
+
+        FileResult(Path file, List<PurchaseRecord> records, long nanos, String error) {
+            this.file = file;
+            this.records = records;
+            this.recordCount = records.size();
+            this.nanos = nanos;
+            this.error = error;
+        }
+
+        public Path getFile() { return file; }
+        public int getRecordCount() { return recordCount; }
+        public long getMillis() { return TimeUnit.NANOSECONDS.toMillis(nanos); }
+        public boolean isSuccess() { return error == null; }
+        public String getError() { return error; }
+    }
+
+    /**
+     * Merged records of a batch plus throughput and per-file outcomes.
+     */
+    public static class BatchResult {
+        private final List<PurchaseRecord> records;
+        private final List<FileResult> files;
+        private final PurchaseDictionaries dictionaries;
+        private final long nanos;
+
+        BatchResult(List<PurchaseRecord> records, List<FileResult> files, PurchaseDictionaries dictionaries, long nanos) {
+            this.records = records;
+            this.files = files;
+            this.dictionaries = dictionaries;
+            this.nanos = nanos;
+        }
+
+        public List<PurchaseRecord> getRecords() { return records; }
+        /** Distinct names across all files; a failed file may have added a few before failing. */
+        public PurchaseDictionaries getDictionaries() { return dictionaries; }
+        public List<FileResult> getFiles() { return files; }
+        public long getMillis() { return TimeUnit.NANOSECONDS.toMillis(nanos); }
+
+        public long getFailureCount() {
+            return files.stream().filter(f -> !f.isSuccess()).count();
+        }
+
+        public double getRecordsPerSecond() {
+            return nanos > 0 ? records.size() * 1_000_000_000.0 / nanos : 0;
+        }
+
+        public double getFilesPerSecond() {
+            return nanos > 0 ? files.size() * 1_000_000_000.0 / nanos : 0;
+        }
+
+        /**
+         * Human-readable summary: one line per file followed by totals.
+         */
+        public String toReport() {
+            StringBuilder sb = new StringBuilder();
+            for (FileResult file : files) {
+                if (file.isSuccess()) {
+                    sb.append(String.format("OK     %-50s %8d records %6d ms%n",
+                            file.getFile().getFileName(), file.getRecordCount(), file.getMillis()));
+                } else {
+                    sb.append(String.format("FAILED %-50s %s%n", file.getFile().getFileName(), file.getError()));
+                }
+            }
+            sb.append(String.format("%d files (%d failed), %d records in %d ms - %.0f records/s, %.1f files/s%n",
+                    files.size(), getFailureCount(), records.size(), getMillis(),
+                    getRecordsPerSecond(), getFilesPerSecond()));
+            return sb.toString();
+        }
+    }
+}
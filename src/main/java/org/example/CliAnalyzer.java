@@ -0,0 +1,297 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Headless analysis of one workbook for batch servers without a display.
+ * Prints the same statistics the viewer's analysis panel shows (revenue, units, unique
+ * products and customers, per-column sums and averages) as JSON or CSV on stdout.
+ *
+ * Nothing here touches AWT or Swing, and the output is built by hand rather than with
+ * String.format or a JSON library, so a run loads few classes. For cron jobs, build the
+ * runnable jar with "mvn -P cli package" and start it with
+ * "java -XX:TieredStopAtLevel=1 -XX:+UseSerialGC -XX:+AutoCreateSharedArchive
+ * -XX:SharedArchiveFile=sales-analyzer.jsa -jar target/sales-analyzer.jar file.xlsx";
+ * the class data archive is written on the first run and makes later starts faster.
+ *
+ * CSV output has one value per line: sheet, column, metric, value. The sheet is empty for
+ * the combined figures and the column is empty for whole-file figures. Columns without a
+ * header name are left out of both formats.
+ */
+public class CliAnalyzer {
+
+    static final String USAGE = "Usage: --analyze <file.xlsx> [--format json|csv] [--all-sheets] [--sheet NAME]...";
+
+    public enum Format { JSON, CSV }
+
+    /**
+     * Entry point of the runnable CLI jar; takes the arguments that follow "--analyze".
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        // POI logs through Log4j; without log4j-core on the classpath it searches for one and
+        // warns on stderr. Use the built-in simple logger straight away instead.
+        if (System.getProperty("log4j2.loggerContextFactory") == null) {
+            System.setProperty("log4j2.loggerContextFactory", "org.apache.logging.log4j.simple.SimpleLoggerContextFactory");
+        }
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Parses the arguments, analyzes the file and writes the report.
+     *
+     * @param args File path followed by options
+     * @return Process exit code: 0 on success, 1 if the file could not be read, 2 on bad usage
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        String filePath = null;
+        Format format = Format.JSON;
+        ExcelReadOptions options = new ExcelReadOptions();
+        List<String> sheetNames = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--format") && i + 1 < args.length) {
+                String value = args[++i];
+                if (value.equalsIgnoreCase("json")) {
+                    format = Format.JSON;
+                } else if (value.equalsIgnoreCase("csv")) {
+                    format = Format.CSV;
+                } else {
+                    err.println("Unknown format: " + value);
+                    return 2;
+                }
+            } else if (args[i].equals("--all-sheets")) {
+                options.setAllSheets(true);
+            } else if (args[i].equals("--sheet") && i + 1 < args.length) {
+                sheetNames.add(args[++i]);
+            } else if (!args[i].startsWith("--") && filePath == null) {
+                filePath = args[i];
+            } else {
+                err.println("Unknown option: " + args[i]);
+                err.println(USAGE);
+                return 2;
+            }
+        }
+        if (filePath == null) {
+            err.println(USAGE);
+            return 2;
+        }
+        options.setSheetNames(sheetNames);
+
+        try {
+            ExcelReaderUtility.LoadResult result = ExcelReaderUtility.load(filePath, options);
+            out.print(format(filePath, result, format));
+            out.flush();
+            return 0;
+        } catch (IOException | RuntimeException e) {
+            err.println("Analysis failed: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Renders the statistics of a load as JSON or CSV.
+     */
+    public static String format(String filePath, ExcelReaderUtility.LoadResult result, Format format) {
+        PurchaseTable table = PurchaseTable.from(result.getRecords(), result.getDictionaries());
+        // Totals and per-sheet figures in one pass over the columns
+        RollupEngine rollup = RollupEngine.compute(table);
+        RollupEngine.Cube sheets = rollup.getCube(RollupEngine.Dimension.SHEET);
+
+        StringBuilder sb = new StringBuilder(4096);
+        if (format == Format.JSON) {
+            sb.append("{\n  \"file\": ");
+            appendJsonString(sb, filePath);
+            sb.append(",\n");
+            appendJsonSummary(sb, rollup, "  ");
+            sb.append(",\n  \"columns\": ");
+            appendJsonColumns(sb, result.getAnalysis().getColumns(), "  ");
+            sb.append(",\n  \"sheets\": [");
+            boolean first = true;
+            for (Map.Entry<String, ExcelReaderUtility.ExcelAnalysis> sheet : result.getAnalysis().getSheets().entrySet()) {
+                int cell = sheets.indexOf(table.getSheetDictionary().find(sheet.getKey()));
+                sb.append(first ? "\n" : ",\n").append("    {\n      \"name\": ");
+                appendJsonString(sb, sheet.getKey());
+                sb.append(",\n");
+                appendJsonSheetSummary(sb, cell >= 0 ? sheets.getCount(cell) : 0,
+                        cell >= 0 ? sheets.getRevenueSum(cell) : 0,
+                        cell >= 0 ? sheets.getUnitsSum(cell) : 0, "      ");
+                sb.append(",\n      \"columns\": ");
+                appendJsonColumns(sb, sheet.getValue().getColumns(), "      ");
+                sb.append("\n    }");
+                first = false;
+            }
+            sb.append(first ? "]\n}\n" : "\n  ]\n}\n");
+        } else {
+            sb.append("sheet,column,metric,value\n");
+            appendCsvSummary(sb, rollup);
+            appendCsvColumns(sb, "", result.getAnalysis().getColumns());
+            for (Map.Entry<String, ExcelReaderUtility.ExcelAnalysis> sheet : result.getAnalysis().getSheets().entrySet()) {
+                int cell = sheets.indexOf(table.getSheetDictionary().find(sheet.getKey()));
+                appendCsvRow(sb, sheet.getKey(), "", "records", Long.toString(cell >= 0 ? sheets.getCount(cell) : 0));
+                appendCsvRow(sb, sheet.getKey(), "", "total_revenue", money(cell >= 0 ? sheets.getRevenueSum(cell) : 0));
+                appendCsvRow(sb, sheet.getKey(), "", "total_units", Long.toString(cell >= 0 ? sheets.getUnitsSum(cell) : 0));
+                appendCsvColumns(sb, sheet.getKey(), sheet.getValue().getColumns());
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Revenue per unit rounded half-up to cents, or null without units.
+     */
+    private static String averageRevenuePerUnit(RollupEngine rollup) {
+        if (rollup.getUnits() <= 0) {
+            return null;
+        }
+        return MoneyDecoder.toBigDecimal(rollup.getRevenueCents())
+                .divide(BigDecimal.valueOf(rollup.getUnits()), 2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    // JSON
+
+    private static void appendJsonSummary(StringBuilder sb, RollupEngine rollup, String indent) {
+        sb.append(indent).append("\"records\": ").append(rollup.getRecordCount()).append(",\n");
+        sb.append(indent).append("\"totalRevenue\": ").append(money(rollup.getRevenueCents())).append(",\n");
+        sb.append(indent).append("\"totalUnits\": ").append(rollup.getUnits()).append(",\n");
+        sb.append(indent).append("\"uniqueProducts\": ").append(rollup.getUniqueProducts()).append(",\n");
+        sb.append(indent).append("\"uniqueCustomers\": ").append(rollup.getUniqueCustomers()).append(",\n");
+        String average = averageRevenuePerUnit(rollup);
+        sb.append(indent).append("\"averageRevenuePerUnit\": ").append(average != null ? average : "null");
+    }
+
+    private static void appendJsonSheetSummary(StringBuilder sb, long records, long revenueCents, long units, String indent) {
+        sb.append(indent).append("\"records\": ").append(records).append(",\n");
+        sb.append(indent).append("\"totalRevenue\": ").append(money(revenueCents)).append(",\n");
+        sb.append(indent).append("\"totalUnits\": ").append(units);
+    }
+
+    private static void appendJsonColumns(StringBuilder sb, List<ExcelReaderUtility.ColumnInfo> columns, String indent) {
+        sb.append('[');
+        boolean first = true;
+        for (ExcelReaderUtility.ColumnInfo column : columns) {
+            if (column.getName().trim().isEmpty()) {
+                continue;
+            }
+            sb.append(first ? "\n" : ",\n").append(indent).append("  {\"name\": ");
+            appendJsonString(sb, column.getName());
+            sb.append(", \"numeric\": ").append(column.isNumeric());
+            sb.append(", \"nonEmptyCells\": ").append(column.getTotalCells() - column.getEmptyCells());
+            sb.append(", \"totalCells\": ").append(column.getTotalCells());
+            if (column.isNumeric()) {
+                sb.append(", \"sum\": ").append(number(column.getSum()));
+                sb.append(", \"average\": ").append(number(column.getAverage()));
+            }
+            sb.append('}');
+            first = false;
+        }
+        if (!first) {
+            sb.append('\n').append(indent);
+        }
+        sb.append(']');
+    }
+
+    private static void appendJsonString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        String hex = Integer.toHexString(c);
+                        sb.append("\\u");
+                        for (int pad = hex.length(); pad < 4; pad++) {
+                            sb.append('0');
+                        }
+                        sb.append(hex);
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    // CSV
+
+    private static void appendCsvSummary(StringBuilder sb, RollupEngine rollup) {
+        appendCsvRow(sb, "", "", "records", Long.toString(rollup.getRecordCount()));
+        appendCsvRow(sb, "", "", "total_revenue", money(rollup.getRevenueCents()));
+        appendCsvRow(sb, "", "", "total_units", Long.toString(rollup.getUnits()));
+        appendCsvRow(sb, "", "", "unique_products", Integer.toString(rollup.getUniqueProducts()));
+        appendCsvRow(sb, "", "", "unique_customers", Integer.toString(rollup.getUniqueCustomers()));
+        String average = averageRevenuePerUnit(rollup);
+        if (average != null) {
+            appendCsvRow(sb, "", "", "average_revenue_per_unit", average);
+        }
+    }
+
+    private static void appendCsvColumns(StringBuilder sb, String sheet, List<ExcelReaderUtility.ColumnInfo> columns) {
+        for (ExcelReaderUtility.ColumnInfo column : columns) {
+            if (column.getName().trim().isEmpty()) {
+                continue;
+            }
+            appendCsvRow(sb, sheet, column.getName(), "type", column.isNumeric() ? "numeric" : "text");
+            appendCsvRow(sb, sheet, column.getName(), "non_empty_cells",
+                    Integer.toString(column.getTotalCells() - column.getEmptyCells()));
+            appendCsvRow(sb, sheet, column.getName(), "total_cells", Integer.toString(column.getTotalCells()));
+            if (column.isNumeric()) {
+                appendCsvRow(sb, sheet, column.getName(), "sum", number(column.getSum()));
+                appendCsvRow(sb, sheet, column.getName(), "average", number(column.getAverage()));
+            }
+        }
+    }
+
+    private static void appendCsvRow(StringBuilder sb, String sheet, String column, String metric, String value) {
+        appendCsvField(sb, sheet);
+        sb.append(',');
+        appendCsvField(sb, column);
+        sb.append(',').append(metric).append(',').append(value).append('\n');
+    }
+
+    private static void appendCsvField(StringBuilder sb, String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            sb.append(value);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    // Numbers
+
+    private static String money(long cents) {
+        return MoneyDecoder.toBigDecimal(cents).toPlainString();
+    }
+
+    /**
+     * A column statistic in plain notation (no exponent), so both JSON and spreadsheet
+     * readers take it as-is.
+     */
+    private static String number(double value) {
+        return BigDecimal.valueOf(value).toPlainString();
+    }
+}
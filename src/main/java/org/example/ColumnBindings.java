@@ -0,0 +1,127 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable plan that says which sheet column feeds each PurchaseRecord field.
+ * It is resolved once from the header row, so row decoding reads cells by index
+ * instead of looking up header aliases for every field of every row.
+ */
+public final class ColumnBindings {
+
+    /**
+     * PurchaseRecord fields and the header names (lower-case, trimmed) that map to them,
+     * in priority order.
+     */
+    public enum Field {
+        ITEM_NAME("procuct name", "product name", "item", "itemname", "name"),
+        PRICE("unit price", "price", "cost", "unitprice"),
+        QUANTITY("qty sold", "quantity sold", "quantity", "qty", "amount"),
+        PURCHASE_DATE("sale date", "date", "purchasedate", "orderdate"),
+        CATEGORY("category", "type", "group", "sku"), // Include SKU as category for now
+        VENDOR("customer name", "vendor", "supplier", "store", "customer"),
+        TOTAL_COST("total amount", "total", "totalcost", "totalprice");
+
+        private final String[] aliases;
+
+        Field(String... aliases) {
+            this.aliases = aliases;
+        }
+
+        public List<String> getAliases() {
+            return List.of(aliases);
+        }
+    }
+
+    // Indexed by Field.ordinal(): every matching column, in alias priority order.
+    // A later column is only used when the earlier ones are empty in a row.
+    private final int[][] columns;
+    private final String[] matchedAliases;
+
+    private ColumnBindings(int[][] columns, String[] matchedAliases) {
+        this.columns = columns;
+        this.matchedAliases = matchedAliases;
+    }
+
+    /**
+     * Builds the plan from a header map of column name (lower-case, trimmed) to column index.
+     */
+    public static ColumnBindings resolve(Map<String, Integer> columnMap) {
+        Field[] fields = Field.values();
+        int[][] columns = new int[fields.length][];
+        String[] matchedAliases = new String[fields.length];
+
+        for (Field field : fields) {
+            List<Integer> indices = new ArrayList<>();
+            for (String alias : field.aliases) {
+                Integer columnIndex = columnMap.get(alias);
+                if (columnIndex != null) {
+                    if (indices.isEmpty()) {
+                        matchedAliases[field.ordinal()] = alias;
+                    }
+                    indices.add(columnIndex);
+                }
+            }
+            columns[field.ordinal()] = indices.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        return new ColumnBindings(columns, matchedAliases);
+    }
+
+    /**
+     * Rebuilds a plan from previously resolved columns, e.g. read back from the parse cache.
+     * Both arrays are indexed by Field.ordinal().
+     */
+    static ColumnBindings of(int[][] columns, String[] matchedAliases) {
+        return new ColumnBindings(columns.clone(), matchedAliases.clone());
+    }
+
+    /**
+     * Whether any header column matched this field.
+     */
+    public boolean isBound(Field field) {
+        return columns[field.ordinal()].length > 0;
+    }
+
+    /**
+     * Primary column index for the field, or -1 if no header matched.
+     */
+    public int getColumnIndex(Field field) {
+        int[] indices = columns[field.ordinal()];
+        return indices.length > 0 ? indices[0] : -1;
+    }
+
+    /**
+     * Header alias that matched the primary column, or null if the field is unbound.
+     */
+    public String getMatchedAlias(Field field) {
+        return matchedAliases[field.ordinal()];
+    }
+
+    /**
+     * All matching columns for the field in priority order. Used by the row decoders;
+     * callers must not modify the returned array.
+     */
+    int[] columnsFor(Field field) {
+        return columns[field.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ColumnBindings{");
+        for (Field field : Field.values()) {
+            if (field.ordinal() > 0) {
+                sb.append(", ");
+            }
+            sb.append(field).append('=');
+            if (isBound(field)) {
+                sb.append('\'').append(getMatchedAlias(field)).append("' -> column ").append(getColumnIndex(field));
+            } else {
+                sb.append("unbound");
+            }
+        }
+        return sb.append('}').toString();
+    }
+}
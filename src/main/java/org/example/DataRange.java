@@ -0,0 +1,131 @@
+package org.example;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorksheet;
+
+/**
+ * The rows of a sheet that hold purchase data: from the first to the last row with valid
+ * data, which leaves out the header, leading blank rows and trailing summary rows.
+ *
+ * Detection can start from the sheet's &lt;dimension ref&gt; (the used range Excel saves with the
+ * sheet), so trailing rows that only carry formatting are not probed. Some writers and append
+ * tools leave the dimension stale, so it is used only when no row past it holds a cell. From
+ * there a bounded probe looks for the first and last valid rows. Compute it once per sheet and pass it to
+ * whatever needs the range.
+ */
+public final class DataRange {
+
+    // Rows examined from either end before the probe gives up and keeps the default bound
+    static final int PROBE_LIMIT = 65_536;
+
+    private final int firstRow;
+    private final int lastRow;
+    private final boolean fromDimension;
+
+    DataRange(int firstRow, int lastRow, boolean fromDimension) {
+        this.firstRow = firstRow;
+        this.lastRow = lastRow;
+        this.fromDimension = fromDimension;
+    }
+
+    /**
+     * Finds the data range of a sheet whose header is row 0.
+     * Without any valid row the range defaults to row 1 through the last used row.
+     */
+    public static DataRange detect(Sheet sheet) {
+        int end = sheet.getLastRowNum();
+        boolean fromDimension = false;
+
+        // Let the saved used range shrink the scan, unless it is missing or degenerate (some writers
+        // always save "A1") or stale: rows with cells past it are read, not silently dropped
+        CellRangeAddress dimension = readDimension(sheet);
+        if (dimension != null && dimension.getLastRow() >= 1 && dimension.getLastRow() < end
+                && !hasCellsAfter(sheet, dimension.getLastRow())) {
+            end = dimension.getLastRow();
+            fromDimension = true;
+        }
+
+        int firstRow = 1;
+        for (int rowNum = 1; rowNum <= end && rowNum <= PROBE_LIMIT; rowNum++) {
+            if (isDataRow(sheet.getRow(rowNum))) {
+                firstRow = rowNum;
+                break;
+            }
+        }
+
+        int lastRow = end;
+        for (int rowNum = end; rowNum >= 1 && end - rowNum < PROBE_LIMIT; rowNum--) {
+            if (isDataRow(sheet.getRow(rowNum))) {
+                lastRow = rowNum;
+                break;
+            }
+        }
+
+        return new DataRange(firstRow, lastRow, fromDimension);
+    }
+
+    /**
+     * Whether any row below the given one holds a cell. Only looks at cell counts, no cell values.
+     */
+    private static boolean hasCellsAfter(Sheet sheet, int rowNum) {
+        for (int r = sheet.getLastRowNum(); r > rowNum; r--) {
+            Row row = sheet.getRow(r);
+            if (row != null && row.getPhysicalNumberOfCells() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isDataRow(Row row) {
+        // Rows without cells are the common case past the data; skip them before the type checks
+        return row != null && row.getPhysicalNumberOfCells() > 0
+                && !ExcelReaderUtility.isRowEmpty(row) && ExcelReaderUtility.hasValidData(row);
+    }
+
+    /**
+     * The &lt;dimension ref&gt; of an XLSX sheet, or null if the sheet has none.
+     */
+    private static CellRangeAddress readDimension(Sheet sheet) {
+        if (!(sheet instanceof XSSFSheet)) {
+            return null;
+        }
+        CTWorksheet worksheet = ((XSSFSheet) sheet).getCTWorksheet();
+        if (!worksheet.isSetDimension() || worksheet.getDimension().getRef() == null) {
+            return null;
+        }
+        try {
+            return CellRangeAddress.valueOf(worksheet.getDimension().getRef());
+        } catch (RuntimeException e) {
+            return null; // Malformed ref, probe the whole sheet instead
+        }
+    }
+
+    /** First data row, 0-based. */
+    public int getFirstRow() {
+        return firstRow;
+    }
+
+    /** Last data row, 0-based and inclusive. */
+    public int getLastRow() {
+        return lastRow;
+    }
+
+    /** Number of rows in the range, including blank rows inside it. */
+    public int getRowCount() {
+        return Math.max(0, lastRow - firstRow + 1);
+    }
+
+    /** Whether the sheet's saved used range limited the scan. */
+    public boolean isFromDimension() {
+        return fromDimension;
+    }
+
+    @Override
+    public String toString() {
+        return "rows " + firstRow + " to " + lastRow + (fromDimension ? " (bounded by sheet dimension)" : "");
+    }
+}
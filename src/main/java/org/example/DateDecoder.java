@@ -0,0 +1,82 @@
+package org.example;
+
+import org.apache.poi.ss.usermodel.Date1904Support;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.time.LocalDate;
+
+/**
+ * Converts Excel serial dates to epoch-days (or LocalDate) with plain arithmetic, instead of
+ * going through java.util.Date, Instant and the default time zone for every cell.
+ * The result does not depend on the JVM time zone.
+ *
+ * Both Excel date systems are supported:
+ * - 1900 (the default): serial 1 is 1900-01-01, and Excel's phantom 1900-02-29 (serial 60)
+ *   is kept so that later serials line up, exactly like DateUtil.getJavaDate.
+ * - 1904 (older Mac workbooks): serial 0 is 1904-01-01.
+ * The time of day is dropped; a time that rounds up to midnight counts as the next day, as in POI.
+ */
+public final class DateDecoder {
+
+    /** Epoch-day returned for values that are not valid Excel dates (negative or not a number). */
+    public static final int NO_DATE = PurchaseTable.NO_DATE;
+
+    public static final DateDecoder SYSTEM_1900 = new DateDecoder(false);
+    public static final DateDecoder SYSTEM_1904 = new DateDecoder(true);
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    // Day 0 of each system: serials from 61 on count from 1899-12-30 (which absorbs the
+    // phantom leap day), earlier serials from 1899-12-31
+    private static final int EPOCH_1900 = (int) LocalDate.of(1899, 12, 30).toEpochDay();
+    private static final int EPOCH_1900_BEFORE_MARCH = (int) LocalDate.of(1899, 12, 31).toEpochDay();
+    private static final int EPOCH_1904 = (int) LocalDate.of(1904, 1, 1).toEpochDay();
+
+    private final boolean date1904;
+
+    private DateDecoder(boolean date1904) {
+        this.date1904 = date1904;
+    }
+
+    /**
+     * Decoder for the date system the workbook uses.
+     */
+    public static DateDecoder forWorkbook(Workbook workbook) {
+        return of(workbook instanceof Date1904Support && ((Date1904Support) workbook).isDate1904());
+    }
+
+    public static DateDecoder of(boolean date1904) {
+        return date1904 ? SYSTEM_1904 : SYSTEM_1900;
+    }
+
+    /**
+     * Epoch-day of an Excel serial date, or NO_DATE if the value is not a valid date.
+     */
+    public int toEpochDay(double serial) {
+        if (!(serial >= 0) || serial > Integer.MAX_VALUE) {
+            return NO_DATE;
+        }
+        int wholeDays = (int) serial;
+        // Same rounding as DateUtil.getJavaDate: a time within half a millisecond of midnight is the next day
+        if ((long) ((serial - wholeDays) * DAY_MILLIS + 0.5) >= DAY_MILLIS) {
+            wholeDays++;
+        }
+
+        if (date1904) {
+            return EPOCH_1904 + wholeDays;
+        }
+        return (wholeDays < 61 ? EPOCH_1900_BEFORE_MARCH : EPOCH_1900) + wholeDays;
+    }
+
+    /**
+     * Date of an Excel serial date, or null if the value is not a valid date.
+     */
+    public LocalDate toLocalDate(double serial) {
+        int epochDay = toEpochDay(serial);
+        return epochDay != NO_DATE ? LocalDate.ofEpochDay(epochDay) : null;
+    }
+
+    public boolean isDate1904() {
+        return date1904;
+    }
+}
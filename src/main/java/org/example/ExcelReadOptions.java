@@ -0,0 +1,140 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Settings for reading an Excel file with ExcelReaderUtility.
+ * The defaults match the plain readExcelFile/load behaviour.
+ */
+public class ExcelReadOptions {
+    private int parallelism = 1;
+    private int chunkSize = 0;
+    private FormulaMode formulaMode = FormulaMode.EVALUATE;
+    private LoadMetrics metrics = LoadMetrics.NOOP;
+    private boolean allSheets = false;
+    private List<String> sheetNames = Collections.emptyList();
+
+    public ExcelReadOptions() {
+    }
+
+    /**
+     * Number of threads used to decode data rows. 1 (the default) decodes on the calling thread.
+     * With more than one sheet selected, the threads decode the sheets concurrently.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public ExcelReadOptions setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, was " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Rows per parallel work chunk. 0 (the default) picks a size from the row count and parallelism.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public ExcelReadOptions setChunkSize(int chunkSize) {
+        if (chunkSize < 0) {
+            throw new IllegalArgumentException("Chunk size cannot be negative, was " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * How formula cells are read. EVALUATE (the default) recalculates every formula;
+     * CACHED_ONLY uses the results saved in the file and skips the evaluator entirely.
+     */
+    public FormulaMode getFormulaMode() {
+        return formulaMode;
+    }
+
+    public ExcelReadOptions setFormulaMode(FormulaMode formulaMode) {
+        if (formulaMode == null) {
+            throw new IllegalArgumentException("Formula mode cannot be null");
+        }
+        this.formulaMode = formulaMode;
+        return this;
+    }
+
+    /**
+     * Where phase timings, row counts and row errors go. The default, LoadMetrics.NOOP,
+     * records nothing; use a RecordingLoadMetrics to see where a load spends its time.
+     */
+    public LoadMetrics getMetrics() {
+        return metrics;
+    }
+
+    public ExcelReadOptions setMetrics(LoadMetrics metrics) {
+        if (metrics == null) {
+            throw new IllegalArgumentException("Metrics cannot be null, use LoadMetrics.NOOP");
+        }
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Whether every sheet of the workbook is read. Sheets without a header row are skipped.
+     */
+    public boolean isAllSheets() {
+        return allSheets;
+    }
+
+    public ExcelReadOptions setAllSheets(boolean allSheets) {
+        this.allSheets = allSheets;
+        return this;
+    }
+
+    /**
+     * Names of the sheets to read, in this order. Empty (the default) reads only the first
+     * sheet, unless all sheets are selected.
+     */
+    public List<String> getSheetNames() {
+        return sheetNames;
+    }
+
+    public ExcelReadOptions setSheetNames(String... sheetNames) {
+        return setSheetNames(Arrays.asList(sheetNames));
+    }
+
+    public ExcelReadOptions setSheetNames(List<String> sheetNames) {
+        if (sheetNames == null || sheetNames.contains(null)) {
+            throw new IllegalArgumentException("Sheet names cannot be null");
+        }
+        this.sheetNames = Collections.unmodifiableList(new ArrayList<>(sheetNames));
+        return this;
+    }
+
+    /**
+     * Describes the settings that change what a load returns (sheet selection and formula
+     * mode), so a cached result is only reused for the same selection.
+     */
+    String resultKey() {
+        StringBuilder sb = new StringBuilder(formulaMode.name()).append('|');
+        if (allSheets) {
+            sb.append('*');
+        } else {
+            for (String name : sheetNames) {
+                sb.append(name.length()).append(':').append(name);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Options that decode rows on all available processors.
+     */
+    public static ExcelReadOptions parallel() {
+        return new ExcelReadOptions().setParallelism(Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -1,15 +1,21 @@
 package org.example;
 
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
  * Fixed utility class for reading and analyzing Excel files.
@@ -18,6 +24,12 @@ import java.util.*;
  */
 public class ExcelReaderUtility {
 
+    // Rows decoded between progress callbacks and cancellation checks
+    private static final int PROGRESS_BATCH_ROWS = 1000;
+
+    // Start value of row fingerprints (FNV-1a offset basis)
+    private static final long FINGERPRINT_SEED = 0xCBF29CE484222325L;
+
     /**
      * Reads an Excel file and converts it to a list of PurchaseRecord objects.
      *
@@ -26,82 +38,703 @@ public class ExcelReaderUtility {
      * @throws IOException if file cannot be read
      */
     public static List<PurchaseRecord> readExcelFile(String filePath) throws IOException {
-        List<PurchaseRecord> records = new ArrayList<>();
+        return readExcelFile(filePath, new ExcelReadOptions());
+    }
 
-        try (FileInputStream fis = new FileInputStream(filePath);
-             XSSFWorkbook workbook = new XSSFWorkbook(fis)) {
+    /**
+     * Reads an Excel file and converts it to a list of PurchaseRecord objects.
+     *
+     * @param filePath Path to the Excel file
+     * @param options  Read settings, e.g. parallel row decoding
+     * @return List of PurchaseRecord objects, in sheet order
+     * @throws IOException if file cannot be read
+     */
+    public static List<PurchaseRecord> readExcelFile(String filePath, ExcelReadOptions options) throws IOException {
+        try (XSSFWorkbook workbook = openWorkbook(filePath, options.getMetrics())) {
+            // Header row, column bindings and data range of each selected sheet (no column analysis)
+            List<DecodeContext> contexts = prepareSheets(workbook, options, new PurchaseDictionaries(),
+                    LoadProgressListener.NONE, false);
 
-            // Create formula evaluator for handling formulas
-            FormulaEvaluator formulaEvaluator = workbook.getCreationHelper().createFormulaEvaluator();
+            // Read data rows (excluding empty and summary rows)
+            return joinRecords(decodeSheets(contexts, options));
+        }
+    }
 
-            Sheet sheet = workbook.getSheetAt(0);
+    /**
+     * Reads records and analyzes columns in one go.
+     * The workbook is opened and parsed once, the data range is found once, and each
+     * data row is decoded and added to the column statistics in the same sweep.
+     * Use this instead of calling readExcelFile and analyzeExcelFile back to back.
+     *
+     * @param filePath Path to the Excel file
+     * @return Records and column analysis for the first sheet
+     * @throws IOException if file cannot be read
+     */
+    public static LoadResult load(String filePath) throws IOException {
+        return load(filePath, new ExcelReadOptions());
+    }
+
+    /**
+     * Reads records and analyzes columns in one go, see load(String).
+     *
+     * @param filePath Path to the Excel file
+     * @param options  Read settings, e.g. parallel row decoding or which sheets to read
+     * @return Records and column analysis for the selected sheets
+     * @throws IOException if file cannot be read
+     */
+    public static LoadResult load(String filePath, ExcelReadOptions options) throws IOException {
+        return load(filePath, options, LoadProgressListener.NONE);
+    }
+
+    /**
+     * Reads records and analyzes columns in one go, reporting records to the listener in
+     * batches while decoding is still running.
+     *
+     * @param filePath Path to the Excel file
+     * @param options  Read settings, e.g. parallel row decoding or which sheets to read
+     * @param listener Receives record batches in sheet order and can cancel the load
+     * @return Records and column analysis for the selected sheets
+     * @throws IOException if file cannot be read
+     * @throws java.util.concurrent.CancellationException if the listener cancelled the load
+     */
+    public static LoadResult load(String filePath, ExcelReadOptions options, LoadProgressListener listener) throws IOException {
+        try (XSSFWorkbook workbook = openWorkbook(filePath, options.getMetrics())) {
+            PurchaseDictionaries dictionaries = new PurchaseDictionaries();
+            List<DecodeContext> contexts = prepareSheets(workbook, options, dictionaries, listener, true);
+            List<DecodedRows> decoded = decodeSheets(contexts, options);
+            return toLoadResult(contexts, decoded, dictionaries);
+        }
+    }
+
+    /**
+     * Loads a workbook again after an earlier load, decoding only the rows appended since then.
+     * The earlier load can be reused if the options read the same sheets, every sheet still
+     * starts its data at the same row and ends no earlier, and the header plus the rows loaded
+     * before hash to the same fingerprint. Then only the rows below are decoded, and their
+     * records and column statistics are added to the earlier ones. Otherwise, or without an
+     * earlier load, the whole file is read as by load().
+     *
+     * @param previous Checkpoint of the earlier load, or null
+     * @param listener Receives the newly decoded records only
+     * @return Checkpoint holding the result, for the next reload
+     */
+    static Checkpoint reload(String filePath, ExcelReadOptions options, LoadProgressListener listener,
+                             Checkpoint previous) throws IOException {
+        try (XSSFWorkbook workbook = openWorkbook(filePath, options.getMetrics())) {
+            if (previous != null && previous.resultKey.equals(options.resultKey())) {
+                // The previous result keeps its own dictionaries, whether or not this reload succeeds
+                PurchaseDictionaries dictionaries = previous.result.getDictionaries().copy();
+                List<DecodeContext> contexts = prepareSheets(workbook, options, dictionaries, listener, true);
+                long[] fingerprints = matchCheckpoint(contexts, previous, options.getMetrics());
+                if (fingerprints != null) {
+                    for (int i = 0; i < contexts.size(); i++) {
+                        contexts.get(i).fromRow = previous.lastRows[i] + 1;
+                    }
+                    countRows(contexts);
+                    List<DecodedRows> appended = decodeSheets(contexts, options);
 
+                    List<DecodedRows> decoded = new ArrayList<>();
+                    int appendedRecords = 0;
+                    for (int i = 0; i < contexts.size(); i++) {
+                        DecodeContext context = contexts.get(i);
+                        decoded.add(previous.decoded.get(i).followedBy(appended.get(i)));
+                        appendedRecords += appended.get(i).records.size();
+                        fingerprints[i] = fingerprintRows(fingerprints[i], context.sheet, context.fromRow,
+                                context.range.getLastRow());
+                    }
+                    return new Checkpoint(options.resultKey(), contexts, decoded, fingerprints,
+                            toLoadResult(contexts, decoded, dictionaries), appendedRecords);
+                }
+            }
+
+            PurchaseDictionaries dictionaries = new PurchaseDictionaries();
+            List<DecodeContext> contexts = prepareSheets(workbook, options, dictionaries, listener, true);
+            List<DecodedRows> decoded = decodeSheets(contexts, options);
+
+            long fingerprintStart = options.getMetrics().startTimer();
+            long[] fingerprints = new long[contexts.size()];
+            for (int i = 0; i < contexts.size(); i++) {
+                DecodeContext context = contexts.get(i);
+                fingerprints[i] = fingerprintRows(fingerprintRows(FINGERPRINT_SEED, context.sheet, 0, 0), context.sheet,
+                        context.range.getFirstRow(), context.range.getLastRow());
+            }
+            options.getMetrics().stopTimer(LoadMetrics.Phase.FINGERPRINT, fingerprintStart);
+            return new Checkpoint(options.resultKey(), contexts, decoded, fingerprints,
+                    toLoadResult(contexts, decoded, dictionaries), -1);
+        }
+    }
+
+    /**
+     * Checks that the sheets just prepared still hold, unchanged, the rows of the checkpoint.
+     *
+     * @return Fingerprints of the header and the previously loaded rows of each sheet, or null if
+     * the checkpoint does not match and the file has to be read in full
+     */
+    private static long[] matchCheckpoint(List<DecodeContext> contexts, Checkpoint previous, LoadMetrics metrics) {
+        if (contexts.size() != previous.sheetNames.length) {
+            return null;
+        }
+        for (int i = 0; i < contexts.size(); i++) {
+            DecodeContext context = contexts.get(i);
+            if (!context.sheetName.equals(previous.sheetNames[i])
+                    || context.range.getFirstRow() != previous.firstRows[i]
+                    || context.range.getLastRow() < previous.lastRows[i]) {
+                return null;
+            }
+        }
+
+        long start = metrics.startTimer();
+        try {
+            long[] fingerprints = new long[contexts.size()];
+            for (int i = 0; i < contexts.size(); i++) {
+                Sheet sheet = contexts.get(i).sheet;
+                fingerprints[i] = fingerprintRows(fingerprintRows(FINGERPRINT_SEED, sheet, 0, 0), sheet,
+                        previous.firstRows[i], previous.lastRows[i]);
+                if (fingerprints[i] != previous.fingerprints[i]) {
+                    return null;
+                }
+            }
+            return fingerprints;
+        } finally {
+            metrics.stopTimer(LoadMetrics.Phase.FINGERPRINT, start);
+        }
+    }
+
+    /**
+     * Continues a fingerprint over rows fromRow..toRow: each row's number and, per cell, the
+     * column, type, stored value and formula text. Nothing is evaluated or decoded, so this is much
+     * cheaper than reading the rows. Formula results are taken as cached in the file.
+     */
+    private static long fingerprintRows(long hash, Sheet sheet, int fromRow, int toRow) {
+        for (int rowNum = fromRow; rowNum <= toRow; rowNum++) {
+            Row row = sheet.getRow(rowNum);
+            if (row == null) {
+                continue; // Blank rows leave no trace; the row numbers of the others do
+            }
+            hash = mix(hash, rowNum);
+            for (Cell cell : row) {
+                CellType type = cell.getCellType();
+                hash = mix(hash, ((long) cell.getColumnIndex() << 8) | type.ordinal());
+                if (type == CellType.FORMULA) {
+                    hash = mix(hash, cell.getCellFormula().hashCode());
+                    type = cell.getCachedFormulaResultType();
+                }
+                switch (type) {
+                    case STRING:
+                        hash = mix(hash, cell.getStringCellValue().hashCode());
+                        break;
+                    case NUMERIC:
+                        hash = mix(hash, Double.doubleToLongBits(cell.getNumericCellValue()));
+                        break;
+                    case BOOLEAN:
+                        hash = mix(hash, cell.getBooleanCellValue() ? 1 : 2);
+                        break;
+                    case ERROR:
+                        hash = mix(hash, cell.getErrorCellValue());
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        hash = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    /**
+     * Wraps decoded sheets into a LoadResult: the records in sheet order plus the column analysis.
+     */
+    private static LoadResult toLoadResult(List<DecodeContext> contexts, List<DecodedRows> decoded,
+                                           PurchaseDictionaries dictionaries) {
+        List<SheetResult> sheets = new ArrayList<>();
+        for (int i = 0; i < contexts.size(); i++) {
+            DecodeContext context = contexts.get(i);
+            sheets.add(new SheetResult(context.sheetName, context.bindings, context.range, decoded.get(i).records.size()));
+        }
+        return new LoadResult(joinRecords(decoded), buildAnalysis(contexts, decoded), dictionaries, sheets);
+    }
+
+    /**
+     * Opens a workbook straight from the file (no in-memory copy of the package), timing the
+     * unzip and the XML parse as separate phases.
+     */
+    private static XSSFWorkbook openWorkbook(String filePath, LoadMetrics metrics) throws IOException {
+        File file = new File(filePath);
+        if (!file.isFile()) {
+            throw new FileNotFoundException(filePath + " (No such file)");
+        }
+
+        long start = metrics.startTimer();
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(file, PackageAccess.READ);
+        } catch (InvalidFormatException | RuntimeException e) {
+            throw new IOException("Error opening Excel file: " + e.getMessage(), e);
+        }
+        metrics.stopTimer(LoadMetrics.Phase.OPEN, start);
+
+        long parseStart = metrics.startTimer();
+        try {
+            XSSFWorkbook workbook = new XSSFWorkbook(pkg);
+            metrics.stopTimer(LoadMetrics.Phase.SHEET_PARSE, parseStart);
+            return workbook;
+        } catch (IOException | RuntimeException e) {
+            pkg.revert();
+            throw e;
+        }
+    }
+
+    /**
+     * Picks the sheets the options ask for and resolves the header row, column bindings and data
+     * range of each one on its own, so sheets with different column layouts can be read together.
+     *
+     * @param analyze whether to keep the header rows for column statistics
+     */
+    private static List<DecodeContext> prepareSheets(Workbook workbook, ExcelReadOptions options,
+                                                     PurchaseDictionaries dictionaries, LoadProgressListener listener,
+                                                     boolean analyze) throws IOException {
+        LoadMetrics metrics = options.getMetrics();
+        long rangeStart = metrics.startTimer();
+
+        List<DecodeContext> contexts = new ArrayList<>();
+        for (Sheet sheet : selectSheets(workbook, options)) {
             // Get header row to understand column structure
             Row headerRow = sheet.getRow(0);
             if (headerRow == null) {
-                throw new IOException("Excel file appears to be empty or has no header row");
+                if (options.isAllSheets()) {
+                    continue; // E.g. an empty notes sheet
+                }
+                throw new IOException(options.getSheetNames().isEmpty()
+                        ? "Excel file appears to be empty or has no header row"
+                        : "Sheet '" + sheet.getSheetName() + "' is empty or has no header row");
             }
 
-            // Map column names to indices for flexible reading
-            Map<String, Integer> columnMap = createColumnMap(headerRow);
+            // Resolve which column feeds each record field, once for the whole sheet
+            ColumnBindings bindings = ColumnBindings.resolve(createColumnMap(headerRow));
+
+            // Find the first non-empty data row and last data row
+            DataRange range = DataRange.detect(sheet);
+
+            contexts.add(new DecodeContext(workbook, sheet, bindings, range, analyze ? headerRow : null,
+                    dictionaries, listener, metrics));
+        }
+        if (contexts.isEmpty()) {
+            throw new IOException("Excel file appears to be empty or has no header row");
+        }
+        countRows(contexts);
+
+        metrics.stopTimer(LoadMetrics.Phase.RANGE_DETECTION, rangeStart);
+        return contexts;
+    }
+
+    /**
+     * Sets the row counts progress is reported against, from the rows each context will decode.
+     */
+    private static void countRows(List<DecodeContext> contexts) {
+        int rowsBefore = 0;
+        for (DecodeContext context : contexts) {
+            context.rowsBefore = rowsBefore;
+            rowsBefore += Math.max(0, context.range.getLastRow() - context.fromRow + 1);
+        }
+        for (DecodeContext context : contexts) {
+            context.rowsTotal = rowsBefore;
+        }
+    }
 
-            // Debug: Print the column map
-            System.out.println("Column mapping:");
-            for (Map.Entry<String, Integer> entry : columnMap.entrySet()) {
-                System.out.println("  '" + entry.getKey() + "' -> column " + entry.getValue());
+    /**
+     * The sheets selected by the options, in the order they are read.
+     */
+    private static List<Sheet> selectSheets(Workbook workbook, ExcelReadOptions options) throws IOException {
+        List<Sheet> sheets = new ArrayList<>();
+        if (options.isAllSheets()) {
+            for (Sheet sheet : workbook) {
+                sheets.add(sheet);
+            }
+        } else if (options.getSheetNames().isEmpty()) {
+            sheets.add(workbook.getSheetAt(0));
+        } else {
+            for (String name : options.getSheetNames()) {
+                Sheet sheet = workbook.getSheet(name);
+                if (sheet == null) {
+                    throw new IOException("No sheet named '" + name + "' in the workbook");
+                }
+                if (!sheets.contains(sheet)) {
+                    sheets.add(sheet);
+                }
             }
+        }
+        return sheets;
+    }
 
-            // Find the first non-empty data row and last data row
-            int firstDataRow = findFirstDataRow(sheet);
-            int lastDataRow = findLastDataRow(sheet);
+    /**
+     * Decodes the data rows of the prepared sheets, either on the calling thread or split into
+     * chunks on one ForkJoinPool when options ask for more than one thread. The chunks of all
+     * sheets share the pool, so several sheets are decoded at the same time and a large sheet
+     * is split up as well.
+     * Each chunk gets its own FormulaResolver. Chunk results are joined in sheet and row order, so the
+     * records and the reported row and cell errors come out the same no matter how many threads ran.
+     * Record batches reach the listener in that order as well.
+     *
+     * @return Decoded rows of each sheet, in the order of the contexts
+     */
+    private static List<DecodedRows> decodeSheets(List<DecodeContext> contexts,
+                                                  ExcelReadOptions options) throws IOException {
+        int rowsTotal = contexts.get(0).rowsTotal;
+        int parallelism = options.getParallelism();
+        int chunkSize = options.getChunkSize() > 0
+                ? options.getChunkSize()
+                : Math.max(1024, (rowsTotal + parallelism * 4 - 1) / (parallelism * 4));
 
-            System.out.println("Data rows: " + firstDataRow + " to " + lastDataRow + " (total sheet rows: " + sheet.getLastRowNum() + ")");
+        LoadMetrics metrics = options.getMetrics();
+        long decodeStart = metrics.startTimer();
+        List<DecodedRows> results = new ArrayList<>();
+        if (parallelism <= 1 || (contexts.size() == 1 && rowsTotal <= chunkSize)) {
+            for (DecodeContext context : contexts) {
+                results.add(decodeRows(context, context.fromRow, context.range.getLastRow(), options, true));
+            }
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                List<List<Future<DecodedRows>>> sheetChunks = new ArrayList<>();
+                for (DecodeContext context : contexts) {
+                    List<Future<DecodedRows>> chunks = new ArrayList<>();
+                    int lastDataRow = context.range.getLastRow();
+                    for (int start = context.fromRow; start <= lastDataRow; start += chunkSize) {
+                        int from = start;
+                        int to = Math.min(lastDataRow, start + chunkSize - 1);
+                        chunks.add(pool.submit(() -> decodeRows(context, from, to, options, false)));
+                    }
+                    sheetChunks.add(chunks);
+                }
 
-            // Read data rows (excluding empty and summary rows)
-            for (int rowNum = firstDataRow; rowNum <= lastDataRow; rowNum++) {
-                Row dataRow = sheet.getRow(rowNum);
-                if (dataRow != null && !isRowEmpty(dataRow)) {
-                    try {
-                        PurchaseRecord record = createPurchaseRecord(dataRow, columnMap, formulaEvaluator);
-                        // Only add records that have essential data
-                        if (record.getItemName() != null && !record.getItemName().trim().isEmpty()) {
-                            records.add(record);
+                // Join in sheet and row order; each finished chunk is published before waiting for the next
+                for (int i = 0; i < contexts.size(); i++) {
+                    DecodeContext context = contexts.get(i);
+                    DecodedRows result = null;
+                    for (Future<DecodedRows> chunk : sheetChunks.get(i)) {
+                        DecodedRows decoded = chunk.get();
+                        context.checkCancelled();
+                        context.listener.onRecords(decoded.records,
+                                context.rowsBefore + decoded.lastRow - context.fromRow + 1, rowsTotal);
+                        if (result == null) {
+                            result = decoded;
+                        } else {
+                            result.append(decoded);
                         }
-                    } catch (Exception e) {
-                        System.err.println("Error processing row " + (rowNum + 1) + ": " + e.getMessage());
-                        // Continue processing other rows
                     }
+                    results.add(result != null ? result : new DecodedRows(context.headerRow, context.range.getLastRow()));
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while decoding rows", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof CancellationException) {
+                    throw (CancellationException) e.getCause();
+                }
+                throw new IOException("Error decoding rows: " + e.getCause().getMessage(), e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+
+        metrics.stopTimer(LoadMetrics.Phase.ROW_DECODE, decodeStart);
+        for (DecodedRows result : results) {
+            metrics.recordRows(result.records.size(), result.skipped, result.errored);
+            for (String error : result.errors) {
+                metrics.recordError(error);
             }
         }
+        return results;
+    }
 
+    /**
+     * Records of all decoded sheets, in sheet order.
+     */
+    private static List<PurchaseRecord> joinRecords(List<DecodedRows> decoded) {
+        if (decoded.size() == 1) {
+            return decoded.get(0).records;
+        }
+        List<PurchaseRecord> records = new ArrayList<>();
+        for (DecodedRows rows : decoded) {
+            records.addAll(rows.records);
+        }
         return records;
     }
 
     /**
-     * Finds the first row that contains actual data (not empty).
+     * Column analysis of each sheet plus the combined analysis, where columns with the same
+     * header name in different sheets are merged into one.
      */
-    private static int findFirstDataRow(Sheet sheet) {
-        // Start from row 1 (after header) and find first non-empty row
-        for (int rowNum = 1; rowNum <= sheet.getLastRowNum(); rowNum++) {
-            Row row = sheet.getRow(rowNum);
-            if (row != null && !isRowEmpty(row)) {
-                // Check if this row has meaningful data (not just random values)
-                if (hasValidData(row)) {
-                    return rowNum;
+    private static ExcelAnalysis buildAnalysis(List<DecodeContext> contexts, List<DecodedRows> decoded) {
+        ExcelAnalysis combined = new ExcelAnalysis();
+        Map<String, ColumnAccumulator> mergedColumns = new LinkedHashMap<>();
+        for (int i = 0; i < contexts.size(); i++) {
+            ExcelAnalysis sheetAnalysis = new ExcelAnalysis();
+            for (ColumnAccumulator accumulator : decoded.get(i).accumulators) {
+                ColumnInfo column = accumulator.toColumnInfo();
+                sheetAnalysis.addColumn(column);
+                if (contexts.size() == 1) {
+                    combined.addColumn(column); // A single sheet is its own combined view
+                } else {
+                    mergedColumns.computeIfAbsent(accumulator.columnName.trim().toLowerCase(),
+                            name -> new ColumnAccumulator(accumulator.columnIndex, accumulator.columnName))
+                            .merge(accumulator);
                 }
             }
+            combined.addSheet(contexts.get(i).sheetName, sheetAnalysis);
+        }
+        for (ColumnAccumulator accumulator : mergedColumns.values()) {
+            combined.addColumn(accumulator.toColumnInfo());
+        }
+        return combined;
+    }
+
+    /**
+     * Decodes one contiguous block of rows into records and, if the context has a header row,
+     * column statistics.
+     *
+     * @param publish whether to hand record batches to the listener from here (sequential mode only)
+     */
+    private static DecodedRows decodeRows(DecodeContext context, int fromRow, int toRow,
+                                          ExcelReadOptions options, boolean publish) {
+        DecodedRows decoded = new DecodedRows(context.headerRow, toRow);
+        // Cell errors are kept with the block's row errors and reported with them, in row order
+        FormulaResolver formulaResolver = new FormulaResolver(context.workbook, options.getFormulaMode(),
+                context.metrics, decoded::addCellError);
+        boolean timed = context.metrics.isEnabled();
+        long analysisNanos = 0;
+        int published = 0;
+
+        for (int rowNum = fromRow; rowNum <= toRow; rowNum++) {
+            if ((rowNum - fromRow) % PROGRESS_BATCH_ROWS == 0) {
+                context.checkCancelled();
+                if (publish && decoded.records.size() > published) {
+                    context.listener.onRecords(new ArrayList<>(decoded.records.subList(published, decoded.records.size())),
+                            context.rowsBefore + rowNum - context.fromRow, context.rowsTotal);
+                    published = decoded.records.size();
+                }
+            }
+
+            Row dataRow = context.sheet.getRow(rowNum);
+            if (dataRow == null) {
+                decoded.skipped++;
+                continue;
+            }
+
+            // Column statistics cover every row in the data range, like analyzeExcelFile
+            long analysisStart = timed ? System.nanoTime() : 0;
+            for (ColumnAccumulator accumulator : decoded.accumulators) {
+                accumulator.add(dataRow.getCell(accumulator.columnIndex), formulaResolver);
+            }
+            if (timed) {
+                analysisNanos += System.nanoTime() - analysisStart;
+            }
+
+            if (isRowEmpty(dataRow)) {
+                decoded.skipped++;
+                continue;
+            }
+            try {
+                PurchaseRecord record = createPurchaseRecord(dataRow, context.bindings, formulaResolver, context.dateDecoder);
+                // Only add records that have essential data
+                if (record.getItemName() != null && !record.getItemName().trim().isEmpty()) {
+                    record.setSourceSheet(context.sheetName);
+                    // Keep one shared copy of repeated names instead of one per row
+                    context.dictionaries.intern(record);
+                    decoded.records.add(record);
+                } else {
+                    decoded.skipped++;
+                }
+            } catch (Exception e) {
+                decoded.addError("Error processing row " + (rowNum + 1) + ": " + e.getMessage());
+                // Continue processing other rows
+            }
+        }
+
+        if (timed && !decoded.accumulators.isEmpty()) {
+            context.metrics.recordTime(LoadMetrics.Phase.ANALYSIS, analysisNanos, toRow - fromRow + 1);
+        }
+        formulaResolver.flushMetrics();
+
+        if (publish) {
+            context.listener.onRecords(new ArrayList<>(decoded.records.subList(published, decoded.records.size())),
+                    context.rowsBefore + toRow - context.fromRow + 1, context.rowsTotal);
+        }
+        return decoded;
+    }
+
+    /**
+     * Everything the row decoders share for one sheet.
+     */
+    private static class DecodeContext {
+        private final Workbook workbook;
+        private final Sheet sheet;
+        private final String sheetName;
+        private final ColumnBindings bindings;
+        private final DataRange range;
+        private final Row headerRow; // Null when no column analysis is wanted
+        private final PurchaseDictionaries dictionaries;
+        private final LoadProgressListener listener;
+        private final DateDecoder dateDecoder;
+        private final LoadMetrics metrics;
+        private int fromRow; // First row to decode: the start of the range, or of the rows appended since a checkpoint
+        private int rowsBefore; // Rows to decode in the sheets read before this one, for progress
+        private int rowsTotal;
+
+        DecodeContext(Workbook workbook, Sheet sheet, ColumnBindings bindings, DataRange range, Row headerRow,
+                      PurchaseDictionaries dictionaries, LoadProgressListener listener, LoadMetrics metrics) {
+            this.workbook = workbook;
+            this.sheet = sheet;
+            this.sheetName = dictionaries.getSheets().intern(sheet.getSheetName());
+            this.bindings = bindings;
+            this.range = range;
+            this.fromRow = range.getFirstRow();
+            this.headerRow = headerRow;
+            this.dictionaries = dictionaries;
+            this.listener = listener;
+            this.dateDecoder = DateDecoder.forWorkbook(workbook);
+            this.metrics = metrics;
+        }
+
+        void checkCancelled() {
+            if (listener.isCancelled()) {
+                throw new CancellationException("Load cancelled");
+            }
+        }
+    }
+
+    /**
+     * Records, column accumulators and row errors for a block of decoded rows.
+     */
+    private static class DecodedRows {
+        private final List<PurchaseRecord> records = new ArrayList<>();
+        private final List<ColumnAccumulator> accumulators;
+        private final List<String> errors = new ArrayList<>();
+        private int skipped;
+        private int errored;
+        private int lastRow;
+
+        DecodedRows(Row headerRow, int lastRow) {
+            this(headerRow != null ? createColumnAccumulators(headerRow) : Collections.emptyList(), lastRow);
+        }
+
+        private DecodedRows(List<ColumnAccumulator> accumulators, int lastRow) {
+            this.accumulators = accumulators;
+            this.lastRow = lastRow;
+        }
+
+        /**
+         * A new block with this block's rows followed by the next block's; neither block is changed,
+         * so a checkpoint stays valid for the result it belongs to.
+         */
+        DecodedRows followedBy(DecodedRows next) {
+            List<ColumnAccumulator> empty = new ArrayList<>();
+            for (ColumnAccumulator accumulator : accumulators) {
+                empty.add(new ColumnAccumulator(accumulator.columnIndex, accumulator.columnName));
+            }
+            DecodedRows joined = new DecodedRows(empty, lastRow);
+            joined.append(this);
+            joined.append(next);
+            return joined;
         }
-        return 1; // Default to row 1 if no data found
+
+        /** Records a row that failed to decode. */
+        void addError(String error) {
+            errored++;
+            addCellError(error);
+        }
+
+        /** Records a cell that could not be read; the row itself may still become a record. */
+        void addCellError(String error) {
+            // Every row could fail; keep only as many messages as metrics would show
+            if (errors.size() < RecordingLoadMetrics.DEFAULT_MAX_ERRORS) {
+                errors.add(error);
+            }
+        }
+
+        /**
+         * Appends the rows that follow this block.
+         */
+        void append(DecodedRows next) {
+            records.addAll(next.records);
+            errors.addAll(next.errors);
+            skipped += next.skipped;
+            errored += next.errored;
+            lastRow = next.lastRow;
+            for (int i = 0; i < accumulators.size(); i++) {
+                accumulators.get(i).merge(next.accumulators.get(i));
+            }
+        }
+    }
+
+    /**
+     * What reload() needs to know about a finished load: per sheet, the rows that were decoded,
+     * a fingerprint of them and the records and column statistics decoded from them.
+     */
+    static final class Checkpoint {
+        private final String resultKey;
+        private final String[] sheetNames;
+        private final int[] firstRows;
+        private final int[] lastRows;
+        private final long[] fingerprints;
+        private final List<DecodedRows> decoded;
+        private final LoadResult result;
+        private final int appendedRecords;
+
+        private Checkpoint(String resultKey, List<DecodeContext> contexts, List<DecodedRows> decoded,
+                           long[] fingerprints, LoadResult result, int appendedRecords) {
+            this.resultKey = resultKey;
+            this.sheetNames = new String[contexts.size()];
+            this.firstRows = new int[contexts.size()];
+            this.lastRows = new int[contexts.size()];
+            for (int i = 0; i < contexts.size(); i++) {
+                DecodeContext context = contexts.get(i);
+                sheetNames[i] = context.sheetName;
+                firstRows[i] = context.range.getFirstRow();
+                lastRows[i] = context.range.getLastRow();
+            }
+            this.fingerprints = fingerprints;
+            this.decoded = decoded;
+            this.result = result;
+            this.appendedRecords = appendedRecords;
+        }
+
+        LoadResult getResult() { return result; }
+
+        /** Whether only appended rows were decoded. */
+        boolean isIncremental() { return appendedRecords >= 0; }
+
+        /** Records decoded from appended rows, or -1 after a full read. */
+        int getAppendedRecords() { return appendedRecords; }
+    }
+
+    /**
+     * Streaming variant of readExcelFile for very large files.
+     * Rows are parsed with POI's event API and handed to the consumer one by one,
+     * so memory use does not grow with the size of the sheet.
+     *
+     * @param filePath Path to the Excel file
+     * @param consumer Receives each PurchaseRecord in sheet order
+     * @return Number of records read
+     * @throws IOException if file cannot be read
+     */
+    public static int readExcelFileStreaming(String filePath, Consumer<PurchaseRecord> consumer) throws IOException {
+        return StreamingExcelReader.readExcelFile(filePath, consumer);
     }
 
     /**
      * Checks if a row has valid purchase data.
      */
-    private static boolean hasValidData(Row row) {
+    static boolean hasValidData(Row row) {
         // A valid data row should have at least a date and some text/numeric data
         Cell firstCell = row.getCell(0); // Assuming first column is date
-        if (firstCell != null && (DateUtil.isCellDateFormatted(firstCell) || firstCell.getCellType() == CellType.NUMERIC)) {
+        // Date formats are only checked on numeric cells and formulas; POI throws for a text cell
+        if (firstCell != null && (firstCell.getCellType() == CellType.NUMERIC
+                || (firstCell.getCellType() == CellType.FORMULA && DateUtil.isCellDateFormatted(firstCell)))) {
             // Check if there's some text data in the row (product name, customer, etc.)
             for (int i = 1; i < Math.min(8, row.getLastCellNum()); i++) {
                 Cell cell = row.getCell(i);
@@ -116,30 +749,10 @@ public class ExcelReaderUtility {
         return false;
     }
 
-    /**
-     * Finds the last row that contains actual data (not summary rows).
-     */
-    private static int findLastDataRow(Sheet sheet) {
-        int totalRows = sheet.getLastRowNum();
-
-        System.out.println("Total rows in sheet: " + (totalRows + 1) + " (0-indexed: " + totalRows + ")");
-
-        // Look backwards from the end to find the last row with meaningful data
-        for (int rowNum = totalRows; rowNum >= 1; rowNum--) {
-            Row row = sheet.getRow(rowNum);
-            if (row != null && !isRowEmpty(row) && hasValidData(row)) {
-                System.out.println("Last data row found at: " + (rowNum + 1));
-                return rowNum;
-            }
-        }
-
-        return totalRows; // Default to all rows if unsure
-    }
-
     /**
      * Creates a map of column names to their indices for flexible column reading.
      */
-    private static Map<String, Integer> createColumnMap(Row headerRow) {
+    static Map<String, Integer> createColumnMap(Row headerRow) {
         Map<String, Integer> columnMap = new HashMap<>();
 
         for (int i = 0; i < headerRow.getLastCellNum(); i++) {
@@ -147,7 +760,6 @@ public class ExcelReaderUtility {
             if (cell != null && cell.getCellType() == CellType.STRING) {
                 String columnName = cell.getStringCellValue().trim().toLowerCase();
                 columnMap.put(columnName, i);
-                System.out.println("Found column: '" + columnName + "' at index " + i);
             }
         }
 
@@ -155,39 +767,38 @@ public class ExcelReaderUtility {
     }
 
     /**
-     * Creates a PurchaseRecord from a data row using the column map.
+     * Creates a PurchaseRecord from a data row using the resolved column bindings.
      * Updated to match the actual Excel column names from the file.
      * NOW INCLUDES FORMULA EVALUATOR!
      */
-    private static PurchaseRecord createPurchaseRecord(Row dataRow, Map<String, Integer> columnMap, FormulaEvaluator formulaEvaluator) {
+    static PurchaseRecord createPurchaseRecord(Row dataRow, ColumnBindings bindings, FormulaResolver formulaResolver,
+                                               DateDecoder dateDecoder) {
         PurchaseRecord record = new PurchaseRecord();
 
-        // Extract data based on actual Excel column names (case-insensitive)
-        record.setItemName(getStringValue(dataRow, columnMap, formulaEvaluator, "procuct name", "product name", "item", "itemname", "name"));
-        record.setPrice(getBigDecimalValue(dataRow, columnMap, formulaEvaluator, "unit price", "price", "cost", "unitprice"));
-        record.setQuantity(getIntValue(dataRow, columnMap, formulaEvaluator, "qty sold", "quantity sold", "quantity", "qty", "amount"));
-        record.setPurchaseDate(getDateValue(dataRow, columnMap, formulaEvaluator, "sale date", "date", "purchasedate", "orderdate"));
-        record.setCategory(getStringValue(dataRow, columnMap, formulaEvaluator, "category", "type", "group", "sku")); // Include SKU as category for now
-        record.setVendor(getStringValue(dataRow, columnMap, formulaEvaluator, "customer name", "vendor", "supplier", "store", "customer"));
-        record.setTotalCost(getBigDecimalValue(dataRow, columnMap, formulaEvaluator, "total amount", "total", "totalcost", "totalprice"));
+        // Extract data based on the columns matched when the header was resolved
+        record.setItemName(getStringValue(dataRow, bindings.columnsFor(ColumnBindings.Field.ITEM_NAME), formulaResolver));
+        record.setPriceCents(getCentsValue(dataRow, bindings.columnsFor(ColumnBindings.Field.PRICE), formulaResolver));
+        record.setQuantity(getIntValue(dataRow, bindings.columnsFor(ColumnBindings.Field.QUANTITY), formulaResolver));
+        record.setPurchaseDate(getDateValue(dataRow, bindings.columnsFor(ColumnBindings.Field.PURCHASE_DATE),
+                formulaResolver, dateDecoder));
+        record.setCategory(getStringValue(dataRow, bindings.columnsFor(ColumnBindings.Field.CATEGORY), formulaResolver));
+        record.setVendor(getStringValue(dataRow, bindings.columnsFor(ColumnBindings.Field.VENDOR), formulaResolver));
+        record.setTotalCostCents(getCentsValue(dataRow, bindings.columnsFor(ColumnBindings.Field.TOTAL_COST), formulaResolver));
 
         return record;
     }
 
     /**
-     * Gets string value from row using multiple possible column names.
+     * Gets string value from the first bound column that is not empty in this row.
      * NOW SUPPORTS FORMULAS!
      */
-    private static String getStringValue(Row row, Map<String, Integer> columnMap, FormulaEvaluator formulaEvaluator, String... possibleNames) {
-        for (String name : possibleNames) {
-            Integer columnIndex = columnMap.get(name);
-            if (columnIndex != null) {
-                Cell cell = row.getCell(columnIndex);
-                if (cell != null) {
-                    String value = getCellValueAsString(cell, formulaEvaluator);
-                    if (!value.isEmpty()) {
-                        return value;
-                    }
+    private static String getStringValue(Row row, int[] columns, FormulaResolver formulaResolver) {
+        for (int columnIndex : columns) {
+            Cell cell = row.getCell(columnIndex);
+            if (cell != null) {
+                String value = getCellValueAsString(cell, formulaResolver);
+                if (!value.isEmpty()) {
+                    return value;
                 }
             }
         }
@@ -195,47 +806,43 @@ public class ExcelReaderUtility {
     }
 
     /**
-     * Gets BigDecimal value from row using multiple possible column names.
-     * FIXED TO HANDLE FORMULAS!
+     * Gets a money amount in cents from the first bound column holding a number in this row.
+     * Text cells are parsed directly to cents, numbers and formulas via MoneyDecoder.toCents.
      */
-    private static BigDecimal getBigDecimalValue(Row row, Map<String, Integer> columnMap, FormulaEvaluator formulaEvaluator, String... possibleNames) {
-        for (String name : possibleNames) {
-            Integer columnIndex = columnMap.get(name);
-            if (columnIndex != null) {
-                Cell cell = row.getCell(columnIndex);
-                if (cell != null) {
-                    try {
-                        double numericValue = getNumericCellValue(cell, formulaEvaluator);
-                        if (!Double.isNaN(numericValue)) {
-                            return BigDecimal.valueOf(numericValue);
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Error getting numeric value from cell: " + e.getMessage());
+    private static long getCentsValue(Row row, int[] columns, FormulaResolver formulaResolver) {
+        for (int columnIndex : columns) {
+            Cell cell = row.getCell(columnIndex);
+            if (cell != null) {
+                try {
+                    long cents = cell.getCellType() == CellType.STRING
+                            ? MoneyDecoder.parseCents(cell.getStringCellValue())
+                            : MoneyDecoder.toCents(getNumericCellValue(cell, formulaResolver));
+                    if (cents != MoneyDecoder.NO_VALUE) {
+                        return cents;
                     }
+                } catch (Exception e) {
+                    formulaResolver.recordError(cell, "Error getting numeric value from cell", e);
                 }
             }
         }
-        return BigDecimal.ZERO;
+        return 0;
     }
 
     /**
-     * Gets integer value from row using multiple possible column names.
+     * Gets integer value from the first bound column holding a number in this row.
      * FIXED TO HANDLE FORMULAS!
      */
-    private static int getIntValue(Row row, Map<String, Integer> columnMap, FormulaEvaluator formulaEvaluator, String... possibleNames) {
-        for (String name : possibleNames) {
-            Integer columnIndex = columnMap.get(name);
-            if (columnIndex != null) {
-                Cell cell = row.getCell(columnIndex);
-                if (cell != null) {
-                    try {
-                        double numericValue = getNumericCellValue(cell, formulaEvaluator);
-                        if (!Double.isNaN(numericValue)) {
-                            return (int) numericValue;
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Error getting integer value from cell: " + e.getMessage());
+    private static int getIntValue(Row row, int[] columns, FormulaResolver formulaResolver) {
+        for (int columnIndex : columns) {
+            Cell cell = row.getCell(columnIndex);
+            if (cell != null) {
+                try {
+                    double numericValue = getNumericCellValue(cell, formulaResolver);
+                    if (!Double.isNaN(numericValue)) {
+                        return (int) numericValue;
                     }
+                } catch (Exception e) {
+                    formulaResolver.recordError(cell, "Error getting integer value from cell", e);
                 }
             }
         }
@@ -243,33 +850,42 @@ public class ExcelReaderUtility {
     }
 
     /**
-     * Gets LocalDate value from row using multiple possible column names.
+     * Gets LocalDate value from the first bound column holding a date in this row.
      */
-    private static LocalDate getDateValue(Row row, Map<String, Integer> columnMap, FormulaEvaluator formulaEvaluator, String... possibleNames) {
-        for (String name : possibleNames) {
-            Integer columnIndex = columnMap.get(name);
-            if (columnIndex != null) {
-                Cell cell = row.getCell(columnIndex);
-                if (cell != null) {
-                    if (DateUtil.isCellDateFormatted(cell)) {
-                        return cell.getDateCellValue().toInstant()
-                                .atZone(ZoneId.systemDefault())
-                                .toLocalDate();
-                    } else if (cell.getCellType() == CellType.NUMERIC) {
-                        // Handle Excel date as numeric value
-                        Date date = DateUtil.getJavaDate(cell.getNumericCellValue());
-                        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-                    }
+    private static LocalDate getDateValue(Row row, int[] columns, FormulaResolver formulaResolver,
+                                          DateDecoder dateDecoder) {
+        for (int columnIndex : columns) {
+            Cell cell = row.getCell(columnIndex);
+            if (cell == null) {
+                continue;
+            }
+            // Plain numbers count as serial dates too; formulas only when their number is formatted as a date.
+            // Blank cells are skipped even with a date style, or POI's 0 would become 1899-12-31
+            if (cell.getCellType() == CellType.NUMERIC) {
+                return dateDecoder.toLocalDate(cell.getNumericCellValue());
+            }
+            if (cell.getCellType() == CellType.FORMULA && isDateStyle(cell.getCellStyle())) {
+                double serial = getNumericCellValue(cell, formulaResolver);
+                if (!Double.isNaN(serial)) {
+                    return dateDecoder.toLocalDate(serial);
                 }
             }
         }
         return null;
     }
 
+    /**
+     * Whether a cell style shows numbers as dates. Unlike DateUtil.isCellDateFormatted this
+     * does not read the cell's value, which throws for formulas with a text result.
+     */
+    private static boolean isDateStyle(CellStyle style) {
+        return style != null && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+    }
+
     /**
      * NEW METHOD: Gets numeric value from cell, handling both direct values and formulas.
      */
-    private static double getNumericCellValue(Cell cell, FormulaEvaluator formulaEvaluator) {
+    private static double getNumericCellValue(Cell cell, FormulaResolver formulaResolver) {
         if (cell == null) {
             return Double.NaN;
         }
@@ -279,18 +895,18 @@ public class ExcelReaderUtility {
                 return cell.getNumericCellValue();
             case FORMULA:
                 try {
-                    // Evaluate the formula and get the result
-                    CellValue cellValue = formulaEvaluator.evaluate(cell);
+                    // Evaluate the formula (or read its saved result) and get the result
+                    CellValue cellValue = formulaResolver.resolve(cell);
                     if (cellValue.getCellType() == CellType.NUMERIC) {
                         return cellValue.getNumberValue();
                     }
                 } catch (Exception e) {
-                    System.err.println("Error evaluating formula in cell: " + e.getMessage());
+                    formulaResolver.recordError(cell, "Error evaluating formula in cell", e);
                     // Try to get cached value if evaluation fails
                     try {
                         return cell.getNumericCellValue();
                     } catch (Exception e2) {
-                        System.err.println("Error getting cached value: " + e2.getMessage());
+                        formulaResolver.recordError(cell, "Error getting cached value", e2);
                     }
                 }
                 break;
@@ -313,11 +929,10 @@ public class ExcelReaderUtility {
     public static ExcelAnalysis analyzeExcelFile(String filePath) throws IOException {
         ExcelAnalysis analysis = new ExcelAnalysis();
 
-        try (FileInputStream fis = new FileInputStream(filePath);
-             XSSFWorkbook workbook = new XSSFWorkbook(fis)) {
+        try (XSSFWorkbook workbook = openWorkbook(filePath, LoadMetrics.NOOP)) {
 
-            // Create formula evaluator
-            FormulaEvaluator formulaEvaluator = workbook.getCreationHelper().createFormulaEvaluator();
+            // Create formula resolver
+            FormulaResolver formulaResolver = new FormulaResolver(workbook, FormulaMode.EVALUATE, LoadMetrics.NOOP);
 
             Sheet sheet = workbook.getSheetAt(0);
             Row headerRow = sheet.getRow(0);
@@ -327,93 +942,145 @@ public class ExcelReaderUtility {
             }
 
             // Find actual data range
-            int firstDataRow = findFirstDataRow(sheet);
-            int lastDataRow = findLastDataRow(sheet);
-
-            // Analyze each column
-            for (int colNum = 0; colNum < headerRow.getLastCellNum(); colNum++) {
-                Cell headerCell = headerRow.getCell(colNum);
-                if (headerCell != null) {
-                    String columnName = headerCell.getStringCellValue();
-                    ColumnInfo columnInfo = analyzeColumn(sheet, colNum, columnName, firstDataRow, lastDataRow, formulaEvaluator);
-                    analysis.addColumn(columnInfo);
+            DataRange range = DataRange.detect(sheet);
+
+            // Visit each data row once and update every column's statistics together
+            List<ColumnAccumulator> accumulators = createColumnAccumulators(headerRow);
+            for (int rowNum = range.getFirstRow(); rowNum <= range.getLastRow(); rowNum++) {
+                Row row = sheet.getRow(rowNum);
+                if (row != null) {
+                    for (ColumnAccumulator accumulator : accumulators) {
+                        accumulator.add(row.getCell(accumulator.columnIndex), formulaResolver);
+                    }
                 }
             }
+
+            for (ColumnAccumulator accumulator : accumulators) {
+                analysis.addColumn(accumulator.toColumnInfo());
+            }
         }
 
         return analysis;
     }
 
     /**
-     * Analyzes a specific column to determine its data type and calculate statistics.
-     * UPDATED TO SUPPORT FORMULAS!
+     * Analyzes the columns of the sheets selected by the options, per sheet and combined.
+     * Decodes the records along the way; use load() if they are needed too.
      */
-    private static ColumnInfo analyzeColumn(Sheet sheet, int columnIndex, String columnName, int firstDataRow, int lastDataRow, FormulaEvaluator formulaEvaluator) {
-        ColumnInfo info = new ColumnInfo(columnName);
-        List<Double> numericValues = new ArrayList<>();
-        List<String> sampleValues = new ArrayList<>();
-        int totalCells = 0;
-        int emptyCells = 0;
+    public static ExcelAnalysis analyzeExcelFile(String filePath, ExcelReadOptions options) throws IOException {
+        return load(filePath, options).getAnalysis();
+    }
 
-        System.out.println("\nAnalyzing column: " + columnName + " (index " + columnIndex + ")");
-        System.out.println("  Processing rows " + firstDataRow + " to " + lastDataRow);
+    /**
+     * Creates one accumulator per header cell, in the same order analyzeExcelFile lists columns.
+     */
+    private static List<ColumnAccumulator> createColumnAccumulators(Row headerRow) {
+        List<ColumnAccumulator> accumulators = new ArrayList<>();
+        for (int colNum = 0; colNum < headerRow.getLastCellNum(); colNum++) {
+            Cell headerCell = headerRow.getCell(colNum);
+            if (headerCell != null) {
+                accumulators.add(new ColumnAccumulator(colNum, headerCell.getStringCellValue()));
+            }
+        }
+        return accumulators;
+    }
 
-        // Analyze only actual data rows
-        for (int rowNum = firstDataRow; rowNum <= lastDataRow; rowNum++) {
-            Row row = sheet.getRow(rowNum);
-            if (row != null) {
-                Cell cell = row.getCell(columnIndex);
-                totalCells++;
+    /**
+     * Running statistics for one column, fed one cell at a time.
+     * Uses primitive running totals (compensated sum + count) instead of collecting
+     * every numeric value, so memory does not grow with the number of rows.
+     */
+    private static class ColumnAccumulator {
+        private final int columnIndex;
+        private final String columnName;
+        private final boolean isDateColumn;
+        private final List<String> sampleValues = new ArrayList<>(5);
+        private double sum = 0;
+        private double sumCompensation = 0; // Kahan summation error term
+        private int numericCount = 0;
+        private int totalCells = 0;
+        private int emptyCells = 0;
 
-                if (cell == null || cell.getCellType() == CellType.BLANK) {
-                    emptyCells++;
-                } else {
-                    String cellValue = getCellValueAsString(cell, formulaEvaluator);
-                    if (!cellValue.isEmpty()) {
-                        // Collect sample values
-                        if (sampleValues.size() < 5) {
-                            sampleValues.add(cellValue);
-                        }
+        ColumnAccumulator(int columnIndex, String columnName) {
+            this.columnIndex = columnIndex;
+            this.columnName = columnName;
+            this.isDateColumn = columnName.toLowerCase().contains("date");
+        }
 
-                        // Try to get numeric value for statistics
-                        double numValue = getNumericCellValue(cell, formulaEvaluator);
-                        if (!Double.isNaN(numValue)) {
-                            // Skip date values (Excel dates are large numbers like 45000+)
-                            if (!columnName.toLowerCase().contains("date") || numValue <= 40000) {
-                                numericValues.add(numValue);
-                            }
-                        }
-                    }
+        void add(Cell cell, FormulaResolver formulaResolver) {
+            totalCells++;
+
+            if (cell == null || cell.getCellType() == CellType.BLANK) {
+                emptyCells++;
+                return;
+            }
+
+            String cellValue = getCellValueAsString(cell, formulaResolver);
+            if (!cellValue.isEmpty()) {
+                if (sampleValues.size() < 5) {
+                    sampleValues.add(cellValue);
+                }
+
+                double numValue = getNumericCellValue(cell, formulaResolver);
+                // Skip date values (Excel dates are large numbers like 45000+)
+                if (!Double.isNaN(numValue) && (!isDateColumn || numValue <= 40000)) {
+                    addNumeric(numValue);
                 }
             }
         }
 
-        info.setSampleValues(sampleValues);
-        info.setTotalCells(totalCells);
-        info.setEmptyCells(emptyCells);
+        /**
+         * Adds the statistics of the rows that follow this accumulator's rows.
+         */
+        void merge(ColumnAccumulator next) {
+            for (String sample : next.sampleValues) {
+                if (sampleValues.size() >= 5) {
+                    break;
+                }
+                sampleValues.add(sample);
+            }
+            addToSum(next.sum);
+            addToSum(-next.sumCompensation);
+            numericCount += next.numericCount;
+            totalCells += next.totalCells;
+            emptyCells += next.emptyCells;
+        }
 
-        // Calculate statistics from actual data
-        if (!numericValues.isEmpty()) {
-            info.setNumeric(true);
-            double sum = numericValues.stream().mapToDouble(Double::doubleValue).sum();
-            double average = sum / numericValues.size();
-            info.setSum(sum);
-            info.setAverage(average);
+        private void addNumeric(double value) {
+            addToSum(value);
+            numericCount++;
+        }
 
-            System.out.println("  Column '" + columnName + "': " + numericValues.size() + " numeric values, sum = " + sum + ", avg = " + average);
-        } else {
-            info.setNumeric(false);
-            System.out.println("  Column '" + columnName + "': No numeric values found");
+        private void addToSum(double value) {
+            double y = value - sumCompensation;
+            double t = sum + y;
+            sumCompensation = (t - sum) - y;
+            sum = t;
         }
 
-        return info;
+        ColumnInfo toColumnInfo() {
+            ColumnInfo info = new ColumnInfo(columnName);
+            info.setSampleValues(sampleValues);
+            info.setTotalCells(totalCells);
+            info.setEmptyCells(emptyCells);
+            info.setNumericCount(numericCount);
+
+            if (numericCount > 0) {
+                info.setNumeric(true);
+                info.setSum(sum);
+                info.setAverage(sum / numericCount);
+            } else {
+                info.setNumeric(false);
+            }
+            return info;
+        }
     }
 
     /**
      * Extracts cell value as string, handling different cell types.
      * UPDATED TO SUPPORT FORMULAS!
      */
-    private static String getCellValueAsString(Cell cell, FormulaEvaluator formulaEvaluator) {
+    private static String getCellValueAsString(Cell cell, FormulaResolver formulaResolver) {
         if (cell == null) return "";
 
         switch (cell.getCellType()) {
@@ -423,26 +1090,16 @@ public class ExcelReaderUtility {
                 if (DateUtil.isCellDateFormatted(cell)) {
                     return cell.getDateCellValue().toString();
                 } else {
-                    double numValue = cell.getNumericCellValue();
-                    if (numValue == Math.floor(numValue)) {
-                        return String.valueOf((long) numValue);
-                    } else {
-                        return String.valueOf(numValue);
-                    }
+                    return formatNumber(cell.getNumericCellValue());
                 }
             case BOOLEAN:
                 return String.valueOf(cell.getBooleanCellValue());
             case FORMULA:
                 try {
-                    CellValue cellValue = formulaEvaluator.evaluate(cell);
+                    CellValue cellValue = formulaResolver.resolve(cell);
                     switch (cellValue.getCellType()) {
                         case NUMERIC:
-                            double numValue = cellValue.getNumberValue();
-                            if (numValue == Math.floor(numValue)) {
-                                return String.valueOf((long) numValue);
-                            } else {
-                                return String.valueOf(numValue);
-                            }
+                            return formatNumber(cellValue.getNumberValue());
                         case STRING:
                             return cellValue.getStringValue();
                         case BOOLEAN:
@@ -451,7 +1108,7 @@ public class ExcelReaderUtility {
                             return "";
                     }
                 } catch (Exception e) {
-                    System.err.println("Error evaluating formula: " + e.getMessage());
+                    formulaResolver.recordError(cell, "Error evaluating formula", e);
                     return "Formula Error";
                 }
             default:
@@ -460,53 +1117,55 @@ public class ExcelReaderUtility {
     }
 
     /**
-     * OVERLOADED METHOD: Extracts cell value as string without formula evaluator (for backward compatibility).
+     * Formats a numeric cell value the way it is shown in the table and samples:
+     * whole numbers without a trailing ".0".
      */
-    private static String getCellValueAsString(Cell cell) {
-        if (cell == null) return "";
-
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue().trim();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                } else {
-                    double numValue = cell.getNumericCellValue();
-                    if (numValue == Math.floor(numValue)) {
-                        return String.valueOf((long) numValue);
-                    } else {
-                        return String.valueOf(numValue);
-                    }
-                }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                try {
-                    FormulaEvaluator evaluator = cell.getSheet().getWorkbook().getCreationHelper().createFormulaEvaluator();
-                    CellValue cellValue = evaluator.evaluate(cell);
-                    return cellValue.formatAsString();
-                } catch (Exception e) {
-                    return "Formula Error";
-                }
-            default:
-                return "";
+    static String formatNumber(double numValue) {
+        if (numValue == Math.floor(numValue)) {
+            return String.valueOf((long) numValue);
+        } else {
+            return String.valueOf(numValue);
         }
     }
 
     /**
      * Checks if a row is completely empty.
+     * Looks at cell types only - formulas are never evaluated and no strings are built - so it
+     * is cheap enough for the range scans. Formula cells always count as content (same rule as
+     * the streaming reader); error cells and blank text count as empty.
      */
-    private static boolean isRowEmpty(Row row) {
+    static boolean isRowEmpty(Row row) {
         if (row == null) return true;
 
         for (int cellNum = row.getFirstCellNum(); cellNum < row.getLastCellNum(); cellNum++) {
             Cell cell = row.getCell(cellNum);
-            if (cell != null && cell.getCellType() != CellType.BLANK) {
-                String cellValue = getCellValueAsString(cell);
-                if (!cellValue.isEmpty()) {
+            if (cell == null) {
+                continue;
+            }
+            switch (cell.getCellType()) {
+                case STRING:
+                    if (!isBlank(cell.getStringCellValue())) {
+                        return false;
+                    }
+                    break;
+                case NUMERIC:
+                case BOOLEAN:
+                case FORMULA:
                     return false;
-                }
+                default:
+                    break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the text is empty or whitespace only, without trimming a copy.
+     */
+    private static boolean isBlank(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
             }
         }
         return true;
@@ -520,6 +1179,7 @@ public class ExcelReaderUtility {
         private boolean isNumeric;
         private double sum;
         private double average;
+        private int numericCount;
         private List<String> sampleValues;
         private int totalCells;
         private int emptyCells;
@@ -537,6 +1197,8 @@ public class ExcelReaderUtility {
         public void setSum(double sum) { this.sum = sum; }
         public double getAverage() { return average; }
         public void setAverage(double average) { this.average = average; }
+        public int getNumericCount() { return numericCount; }
+        public void setNumericCount(int numericCount) { this.numericCount = numericCount; }
         public List<String> getSampleValues() { return sampleValues; }
         public void setSampleValues(List<String> sampleValues) { this.sampleValues = sampleValues; }
         public int getTotalCells() { return totalCells; }
@@ -545,14 +1207,78 @@ public class ExcelReaderUtility {
         public void setEmptyCells(int emptyCells) { this.emptyCells = emptyCells; }
     }
 
+    /**
+     * Where the records of one sheet came from: the header bindings and data range resolved for it.
+     */
+    public static class SheetResult {
+        private final String name;
+        private final ColumnBindings bindings;
+        private final DataRange dataRange;
+        private final int recordCount;
+
+        public SheetResult(String name, ColumnBindings bindings, DataRange dataRange, int recordCount) {
+            this.name = name;
+            this.bindings = bindings;
+            this.dataRange = dataRange;
+            this.recordCount = recordCount;
+        }
+
+        public String getName() { return name; }
+        public ColumnBindings getBindings() { return bindings; }
+        public DataRange getDataRange() { return dataRange; }
+        public int getRecordCount() { return recordCount; }
+    }
+
+    /**
+     * Result of load(): the decoded records together with the column analysis.
+     */
+    public static class LoadResult {
+        private final List<PurchaseRecord> records;
+        private final ExcelAnalysis analysis;
+        private final PurchaseDictionaries dictionaries;
+        private final List<SheetResult> sheets;
+        private final boolean fromCache;
+
+        public LoadResult(List<PurchaseRecord> records, ExcelAnalysis analysis, PurchaseDictionaries dictionaries,
+                          List<SheetResult> sheets) {
+            this(records, analysis, dictionaries, sheets, false);
+        }
+
+        LoadResult(List<PurchaseRecord> records, ExcelAnalysis analysis, PurchaseDictionaries dictionaries,
+                   List<SheetResult> sheets, boolean fromCache) {
+            this.records = records;
+            this.analysis = analysis;
+            this.dictionaries = dictionaries;
+            this.sheets = sheets;
+            this.fromCache = fromCache;
+        }
+
+        /** Records of all loaded sheets, in sheet order; each is tagged with its source sheet. */
+        public List<PurchaseRecord> getRecords() { return records; }
+        /** Combined column analysis, with the per-sheet breakdown in getSheets(). */
+        public ExcelAnalysis getAnalysis() { return analysis; }
+        /** Which header column was matched to each record field in the first loaded sheet. */
+        public ColumnBindings getBindings() { return sheets.get(0).getBindings(); }
+        /** Distinct item names, categories, vendors and sheet names of the loaded records. */
+        public PurchaseDictionaries getDictionaries() { return dictionaries; }
+        /** Sheet rows of the first loaded sheet the records and analysis were taken from. */
+        public DataRange getDataRange() { return sheets.get(0).getDataRange(); }
+        /** The loaded sheets, in the order their records appear. */
+        public List<SheetResult> getSheets() { return sheets; }
+        /** Whether the result was read back from a ParseCache snapshot instead of the workbook. */
+        public boolean isFromCache() { return fromCache; }
+    }
+
     /**
      * Class to hold complete Excel analysis results.
      */
     public static class ExcelAnalysis {
         private List<ColumnInfo> columns;
+        private Map<String, ExcelAnalysis> sheets;
 
         public ExcelAnalysis() {
             this.columns = new ArrayList<>();
+            this.sheets = new LinkedHashMap<>();
         }
 
         public void addColumn(ColumnInfo columnInfo) {
@@ -562,5 +1288,17 @@ public class ExcelReaderUtility {
         public List<ColumnInfo> getColumns() {
             return columns;
         }
+
+        public void addSheet(String sheetName, ExcelAnalysis sheetAnalysis) {
+            sheets.put(sheetName, sheetAnalysis);
+        }
+
+        /**
+         * Analysis of each sheet by name, in load order. Empty for a single sheet's own analysis
+         * and for analyzeExcelFile(String).
+         */
+        public Map<String, ExcelAnalysis> getSheets() {
+            return sheets;
+        }
     }
 }
\ No newline at end of file
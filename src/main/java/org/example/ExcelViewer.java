@@ -1,16 +1,22 @@
 package org.example;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.filechooser.FileNameExtensionFilter;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Fixed GUI class for Excel file viewer and analyzer.
@@ -18,19 +24,48 @@ import java.util.List;
  */
 public class ExcelViewer extends JFrame {
 
+    // Products listed in the analysis panel's top sellers
+    private static final int TOP_PRODUCTS = 5;
+
     // GUI Components
     private JButton loadFileButton;
+    private JButton cancelButton;
     private JTable dataTable;
-    private DefaultTableModel tableModel;
+    private PurchaseTableModel tableModel;
     private JTextArea analysisArea;
     private JScrollPane tableScrollPane;
     private JScrollPane analysisScrollPane;
     private JLabel statusLabel;
     private JSplitPane splitPane;
 
+    // Filter bar, enabled once the loaded rows are indexed
+    private static final String ALL = "(all)";
+    private JTextField productFilterField;
+    private JComboBox<String> customerFilterBox;
+    private JComboBox<String> categoryFilterBox;
+    private JTextField fromDateField;
+    private JTextField toDateField;
+    private JButton clearFilterButton;
+    private boolean updatingFilters; // Set while the bar is reset, so its events do not filter
+
+    // Watch mode: reload the file in the background whenever it is saved again
+    private static final long WATCH_DEBOUNCE_MILLIS = 1000;
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private JCheckBox watchCheckBox;
+    private FileWatcher fileWatcher;
+    private IncrementalLoader watchLoader; // Null unless watching; reloads only appended rows
+    private RefreshWorker refreshWorker;
+    private boolean refreshPending; // A change arrived while a refresh was running
+    private long shownModified; // Modification time of the file when the shown data was read
+
     // Data
-    private List<PurchaseRecord> currentRecords;
+    private PurchaseTable currentTable;
+    private List<PurchaseRecord> currentRecords; // Row view over currentTable
+    private RollupEngine currentRollup; // Sales summary of currentTable, extended by appending refreshes
     private String currentFilePath;
+    private LoadWorker loadWorker;
+    private RecordIndex currentIndex; // Null until the current table is indexed
+    private final ParseCache parseCache = ParseCache.defaultCache();
 
     /**
      * Constructor - sets up the GUI interface.
@@ -87,12 +122,23 @@ public class ExcelViewer extends JFrame {
         loadFileButton = new JButton("Load Excel File");
         loadFileButton.setPreferredSize(new Dimension(150, 30));
 
+        cancelButton = new JButton("Cancel");
+        cancelButton.setPreferredSize(new Dimension(100, 30));
+        cancelButton.setEnabled(false);
+
         JLabel instructionLabel = new JLabel("Select an Excel file (.xlsx) to analyze:");
         instructionLabel.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
 
         topPanel.add(instructionLabel);
         topPanel.add(Box.createHorizontalStrut(10));
         topPanel.add(loadFileButton);
+        topPanel.add(cancelButton);
+
+        watchCheckBox = new JCheckBox("Watch file for changes");
+        watchCheckBox.setToolTipText("Reload automatically when the file is saved again");
+        watchCheckBox.setEnabled(false);
+        topPanel.add(Box.createHorizontalStrut(10));
+        topPanel.add(watchCheckBox);
 
         return topPanel;
     }
@@ -124,14 +170,8 @@ public class ExcelViewer extends JFrame {
         JPanel tablePanel = new JPanel(new BorderLayout());
         tablePanel.setBorder(BorderFactory.createTitledBorder("Sales Data"));
 
-        // Initialize table model with cleaned up column names
-        String[] columnNames = {"Product Name", "Unit Price", "Qty Sold", "Sale Date", "Customer Name", "Total Amount"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make table read-only
-            }
-        };
+        // Read-only model that formats cells lazily from the loaded PurchaseTable
+        tableModel = new PurchaseTableModel();
 
         dataTable = new JTable(tableModel);
         dataTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -146,11 +186,46 @@ public class ExcelViewer extends JFrame {
         tableScrollPane = new JScrollPane(dataTable);
         tableScrollPane.setPreferredSize(new Dimension(700, 600));
 
+        tablePanel.add(createFilterPanel(), BorderLayout.NORTH);
         tablePanel.add(tableScrollPane, BorderLayout.CENTER);
 
         return tablePanel;
     }
 
+    /**
+     * Creates the filter bar above the table: product search, customer, category and date range.
+     */
+    private JPanel createFilterPanel() {
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 2));
+
+        productFilterField = new JTextField(14);
+        productFilterField.setToolTipText("Product name contains (1-2 letters: starts with)");
+        customerFilterBox = new JComboBox<>(new String[]{ALL});
+        customerFilterBox.setPrototypeDisplayValue("Customer name of some length");
+        categoryFilterBox = new JComboBox<>(new String[]{ALL});
+        categoryFilterBox.setPrototypeDisplayValue("CATEGORY00000000");
+        fromDateField = new JTextField(7);
+        fromDateField.setToolTipText("MM/dd/yyyy");
+        toDateField = new JTextField(7);
+        toDateField.setToolTipText("MM/dd/yyyy");
+        clearFilterButton = new JButton("Clear");
+
+        filterPanel.add(new JLabel("Product:"));
+        filterPanel.add(productFilterField);
+        filterPanel.add(new JLabel("Customer:"));
+        filterPanel.add(customerFilterBox);
+        filterPanel.add(new JLabel("Category:"));
+        filterPanel.add(categoryFilterBox);
+        filterPanel.add(new JLabel("From:"));
+        filterPanel.add(fromDateField);
+        filterPanel.add(new JLabel("To:"));
+        filterPanel.add(toDateField);
+        filterPanel.add(clearFilterButton);
+
+        setFilterBarEnabled(false);
+        return filterPanel;
+    }
+
     /**
      * Creates the analysis panel for statistics and column information.
      */
@@ -198,6 +273,162 @@ public class ExcelViewer extends JFrame {
                 loadExcelFile();
             }
         });
+
+        cancelButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                cancelLoad();
+            }
+        });
+
+        // Every change re-filters straight away; the indexes make this cheap even on large files
+        DocumentListener filterListener = new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { applyFilter(); }
+            @Override
+            public void removeUpdate(DocumentEvent e) { applyFilter(); }
+            @Override
+            public void changedUpdate(DocumentEvent e) { applyFilter(); }
+        };
+        productFilterField.getDocument().addDocumentListener(filterListener);
+        fromDateField.getDocument().addDocumentListener(filterListener);
+        toDateField.getDocument().addDocumentListener(filterListener);
+        customerFilterBox.addActionListener(e -> applyFilter());
+        categoryFilterBox.addActionListener(e -> applyFilter());
+        clearFilterButton.addActionListener(e -> clearFilters());
+
+        watchCheckBox.addActionListener(e -> setWatching(watchCheckBox.isSelected()));
+    }
+
+    /**
+     * Shows only the rows matching the filter bar, looked up through the record index.
+     */
+    private void applyFilter() {
+        if (updatingFilters || currentIndex == null) {
+            return;
+        }
+        RecordIndex.Filter filter = new RecordIndex.Filter()
+                .setProductText(productFilterField.getText())
+                .setCustomer(selectedValue(customerFilterBox))
+                .setCategory(selectedValue(categoryFilterBox))
+                .setFrom(parseDateField(fromDateField))
+                .setTo(parseDateField(toDateField));
+
+        if (filter.isSet()) {
+            RowBitmap rows = currentIndex.filter(filter);
+            RecordIndex.Totals totals = currentIndex.aggregate(rows);
+            tableModel.setRowFilter(rows);
+            statusLabel.setText(String.format("Showing %d of %d records - revenue %s, %d units",
+                    totals.getCount(), currentTable.size(),
+                    PurchaseTableModel.formatCents(totals.getRevenueCents()), totals.getUnits()));
+        } else {
+            tableModel.setRowFilter(null);
+            statusLabel.setText(String.format("Showing all %d records", currentTable.size()));
+        }
+    }
+
+    private static String selectedValue(JComboBox<String> box) {
+        Object selected = box.getSelectedItem();
+        return selected == null || ALL.equals(selected) ? null : selected.toString();
+    }
+
+    /**
+     * Date typed into a filter field, or null if empty or not (yet) a valid date; invalid text is shown in red.
+     */
+    private static LocalDate parseDateField(JTextField field) {
+        String text = field.getText().trim();
+        field.setForeground(Color.BLACK);
+        if (text.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(text, PurchaseTableModel.DATE_FORMATTER);
+        } catch (DateTimeParseException e) {
+            field.setForeground(Color.RED);
+            return null;
+        }
+    }
+
+    private void clearFilters() {
+        updatingFilters = true;
+        try {
+            productFilterField.setText("");
+            fromDateField.setText("");
+            toDateField.setText("");
+            customerFilterBox.setSelectedIndex(0);
+            categoryFilterBox.setSelectedIndex(0);
+        } finally {
+            updatingFilters = false;
+        }
+        applyFilter();
+    }
+
+    private void setFilterBarEnabled(boolean enabled) {
+        productFilterField.setEnabled(enabled);
+        customerFilterBox.setEnabled(enabled);
+        categoryFilterBox.setEnabled(enabled);
+        fromDateField.setEnabled(enabled);
+        toDateField.setEnabled(enabled);
+        clearFilterButton.setEnabled(enabled);
+    }
+
+    /**
+     * Takes a freshly built index into use and fills the drop-downs from it, keeping the selected
+     * customer and category if they still occur.
+     */
+    private void installIndex(RecordIndex index) {
+        currentIndex = index;
+        updatingFilters = true;
+        try {
+            Object customer = customerFilterBox.getSelectedItem();
+            customerFilterBox.removeAllItems();
+            customerFilterBox.addItem(ALL);
+            for (String name : index.getCustomers()) {
+                customerFilterBox.addItem(name);
+            }
+            customerFilterBox.setSelectedItem(customer);
+
+            Object category = categoryFilterBox.getSelectedItem();
+            categoryFilterBox.removeAllItems();
+            categoryFilterBox.addItem(ALL);
+            for (String name : index.getCategories()) {
+                categoryFilterBox.addItem(name);
+            }
+            categoryFilterBox.setSelectedItem(category);
+        } finally {
+            updatingFilters = false;
+        }
+        setFilterBarEnabled(true);
+    }
+
+    /**
+     * Builds the record index of a fully loaded table off the EDT.
+     */
+    private class IndexWorker extends SwingWorker<RecordIndex, Void> {
+        private final PurchaseTable table;
+
+        IndexWorker(PurchaseTable table) {
+            this.table = table;
+        }
+
+        @Override
+        protected RecordIndex doInBackground() {
+            return RecordIndex.build(table);
+        }
+
+        @Override
+        protected void done() {
+            if (table != currentTable) {
+                return; // Another file was opened meanwhile
+            }
+            try {
+                installIndex(get());
+            } catch (ExecutionException ex) {
+                showErrorDialog("Filtering Unavailable", "Could not index the loaded rows: " + ex.getCause().getMessage());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
 
     /**
@@ -221,88 +452,402 @@ public class ExcelViewer extends JFrame {
         if (result == JFileChooser.APPROVE_OPTION) {
             File selectedFile = fileChooser.getSelectedFile();
             currentFilePath = selectedFile.getAbsolutePath();
+            shownModified = selectedFile.lastModified();
+
+            // Watching resumes for the new file once it has loaded
+            stopWatching();
+            watchCheckBox.setEnabled(false);
 
             // Update status
             statusLabel.setText("Loading file: " + selectedFile.getName() + "...");
             loadFileButton.setEnabled(false);
+            cancelButton.setEnabled(true);
+            analysisArea.setText("Loading...");
+
+            // Filters apply to the previous table only; they come back once the new one is indexed
+            currentIndex = null;
+            clearFilters();
+            setFilterBarEnabled(false);
+
+            // Rows are streamed into a fresh table while the file is still being decoded
+            currentTable = new PurchaseTable();
+            currentRecords = currentTable.asList();
+            populateTable(currentTable);
+
+            // When watching, read through the loader so its checkpoint comes from this load
+            IncrementalLoader loader = watchCheckBox.isSelected()
+                    ? new IncrementalLoader(currentFilePath, new ExcelReadOptions()) : null;
 
             // Process file in background thread to prevent UI freezing
-            SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
-                private String errorMessage = null;
+            loadWorker = new LoadWorker(selectedFile.getName(), currentFilePath, loader);
+            loadWorker.execute();
+        }
+    }
 
-                @Override
-                protected Void doInBackground() throws Exception {
-                    try {
-                        // Read the Excel file
-                        currentRecords = ExcelReaderUtility.readExcelFile(currentFilePath);
-
-                        // Perform analysis
-                        ExcelReaderUtility.ExcelAnalysis analysis =
-                                ExcelReaderUtility.analyzeExcelFile(currentFilePath);
-
-                        // Update UI on EDT
-                        SwingUtilities.invokeLater(() -> {
-                            populateTable(currentRecords);
-                            displayAnalysis(analysis);
-                            updateStatus(selectedFile.getName(), currentRecords.size());
-                        });
-
-                    } catch (IOException ex) {
-                        errorMessage = "Error reading file: " + ex.getMessage();
-                    } catch (Exception ex) {
-                        errorMessage = "Unexpected error: " + ex.getMessage();
-                    }
+    /**
+     * Cancels the load in progress, if any. The worker stops at its next batch boundary
+     * and closes the workbook; rows already shown stay in the table.
+     */
+    private void cancelLoad() {
+        if (loadWorker != null && !loadWorker.isDone()) {
+            loadWorker.cancel(false);
+            statusLabel.setText("Cancelling...");
+        }
+    }
 
-                    return null;
-                }
+    /**
+     * Background load that publishes record batches to the table as they are decoded.
+     */
+    private class LoadWorker extends SwingWorker<ExcelReaderUtility.LoadResult, LoadWorker.Progress> {
+        private final String fileName;
+        private final String filePath;
+        private final IncrementalLoader loader; // Null when not watching
+        private final long startNanos = System.nanoTime();
+        private final RecordingLoadMetrics metrics = new RecordingLoadMetrics();
+        private final RollupEngine rollup = new RollupEngine(); // Fed on the loading thread, read in done()
+
+        /** One published batch plus how far through the sheet the loader was. */
+        private class Progress {
+            private final List<PurchaseRecord> records;
+            private final int rowsDone;
+            private final int rowsTotal;
+
+            Progress(List<PurchaseRecord> records, int rowsDone, int rowsTotal) {
+                this.records = records;
+                this.rowsDone = rowsDone;
+                this.rowsTotal = rowsTotal;
+            }
+        }
+
+        /**
+         * @param loader Loader to read with when watching, so watch mode starts from this load; null to use the parse cache
+         */
+        LoadWorker(String fileName, String filePath, IncrementalLoader loader) {
+            this.fileName = fileName;
+            this.filePath = filePath;
+            this.loader = loader;
+        }
 
+        @Override
+        protected ExcelReaderUtility.LoadResult doInBackground() throws Exception {
+            // Read and analyze the Excel file in a single pass, streaming records to the table
+            LoadProgressListener listener = new LoadProgressListener() {
                 @Override
-                protected void done() {
-                    loadFileButton.setEnabled(true);
+                public void onRecords(List<PurchaseRecord> records, int rowsDone, int rowsTotal) {
+                    rollup.addAll(records);
+                    publish(new Progress(records, rowsDone, rowsTotal));
+                }
 
-                    if (errorMessage != null) {
-                        showErrorDialog("File Loading Error", errorMessage);
-                        statusLabel.setText("Error loading file");
-                    }
+                @Override
+                public boolean isCancelled() {
+                    return LoadWorker.this.isCancelled();
                 }
             };
+            if (loader != null) {
+                loader.getOptions().setMetrics(metrics);
+                return loader.load(listener);
+            }
+            // Unchanged files are served from the parse cache instead
+            return parseCache.load(filePath, new ExcelReadOptions().setMetrics(metrics), listener);
+        }
 
-            worker.execute();
+        @Override
+        protected void process(List<Progress> batches) {
+            if (isCancelled()) {
+                return;
+            }
+            Progress latest = null;
+            for (Progress batch : batches) {
+                tableModel.appendRecords(batch.records);
+                latest = batch;
+            }
+
+            double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+            int percent = latest.rowsTotal > 0 ? (int) (100L * latest.rowsDone / latest.rowsTotal) : 100;
+            statusLabel.setText(String.format("Loading %s: %d records (%d%%, %.0f rows/sec)",
+                    fileName, currentTable.size(), percent, seconds > 0 ? latest.rowsDone / seconds : 0));
+        }
+
+        @Override
+        protected void done() {
+            loadFileButton.setEnabled(true);
+            cancelButton.setEnabled(false);
+
+            if (isCancelled()) {
+                analysisArea.setText("Load cancelled - analysis is only available for fully loaded files.");
+                statusLabel.setText(String.format("Load cancelled: %s (%d records shown)", fileName, currentTable.size()));
+                return;
+            }
+
+            try {
+                ExcelReaderUtility.LoadResult loadResult = get();
+                currentRollup = rollup;
+                displayAnalysis(loadResult.getAnalysis(), metrics, rollup, loadResult.isFromCache());
+                updateStatus(fileName, currentRecords.size());
+                new IndexWorker(currentTable).execute();
+                watchCheckBox.setEnabled(true);
+                if (watchCheckBox.isSelected()) {
+                    startWatching(loader);
+                }
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                String errorMessage = cause instanceof IOException
+                        ? "Error reading file: " + cause.getMessage()
+                        : "Unexpected error: " + cause.getMessage();
+                showErrorDialog("File Loading Error", errorMessage);
+                statusLabel.setText("Error loading file");
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
         }
     }
 
     /**
-     * Populates the JTable with data from PurchaseRecord list.
-     * Updated to properly format and display only relevant columns.
+     * Turns watch mode on or off for the current file.
      */
-    private void populateTable(List<PurchaseRecord> records) {
-        // Clear existing data
-        tableModel.setRowCount(0);
-
-        // DateTimeFormatter for better date formatting
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MM/dd/yyyy");
-
-        // Add new data - only showing relevant columns without category
-        for (PurchaseRecord record : records) {
-            Object[] rowData = {
-                    record.getItemName() != null ? record.getItemName() : "",                    // Product Name
-                    record.getPrice() != null ? String.format("$%.2f", record.getPrice()) : "$0.00",  // Unit Price formatted
-                    record.getQuantity(),                                                        // Qty Sold
-                    record.getPurchaseDate() != null ? record.getPurchaseDate().format(dateFormatter) : "", // Sale Date formatted
-                    record.getVendor() != null ? record.getVendor() : "",                       // Customer Name
-                    record.getTotalCost() != null ? String.format("$%.2f", record.getTotalCost()) : "$0.00" // Total Amount formatted
-            };
-            tableModel.addRow(rowData);
+    private void setWatching(boolean watching) {
+        stopWatching();
+        if (watching && currentFilePath != null) {
+            startWatching(null);
+        }
+    }
+
+    /**
+     * Starts watching the current file.
+     *
+     * @param loader Loader the shown data was read with, or null. Without one the file is read once
+     *               more in the background, so the first save already only decodes the rows appended to it
+     */
+    private void startWatching(IncrementalLoader loader) {
+        stopWatching();
+        try {
+            fileWatcher = new FileWatcher(Paths.get(currentFilePath), WATCH_DEBOUNCE_MILLIS,
+                    () -> SwingUtilities.invokeLater(this::refreshFromFile));
+        } catch (IOException | RuntimeException ex) {
+            watchCheckBox.setSelected(false);
+            showErrorDialog("Watch Mode", "Cannot watch " + currentFilePath + ": " + ex.getMessage());
+            return;
+        }
+        watchLoader = loader != null ? loader : new IncrementalLoader(currentFilePath, new ExcelReadOptions());
+        // With the load's own loader this only compares the file's size and time, catching saves during the load
+        startRefresh(true);
+    }
+
+    private void stopWatching() {
+        if (fileWatcher != null) {
+            try {
+                fileWatcher.close();
+            } catch (IOException ex) {
+                // Nothing is watched any more either way
+            }
+            fileWatcher = null;
         }
+        watchLoader = null; // A refresh still running sees this and drops its result
+        refreshPending = false;
+    }
+
+    /**
+     * Called on the EDT when the watched file has been saved. Refreshes run one at a time;
+     * changes during a refresh are picked up by one more refresh afterwards.
+     */
+    private void refreshFromFile() {
+        if (watchLoader == null) {
+            return;
+        }
+        if (refreshWorker != null && !refreshWorker.isDone()) {
+            refreshPending = true;
+            return;
+        }
+        startRefresh(false);
+    }
+
+    private void startRefresh(boolean priming) {
+        refreshPending = false;
+        refreshWorker = new RefreshWorker(watchLoader, priming, shownModified, currentTable, currentRollup);
+        refreshWorker.execute();
+    }
+
+    /**
+     * Everything the view shows for one reload, prepared off the EDT.
+     */
+    private static class Refresh {
+        private final ExcelReaderUtility.LoadResult result;
+        private final PurchaseTable table;
+        private final RollupEngine rollup;
+        private final RecordIndex index;
+        private final RecordingLoadMetrics metrics;
+        private final IncrementalLoader.Mode mode;
+        private final int newRecords;
+        private final long modified;
+
+        Refresh(ExcelReaderUtility.LoadResult result, PurchaseTable table, RollupEngine rollup, RecordIndex index,
+                RecordingLoadMetrics metrics, IncrementalLoader.Mode mode, int newRecords, long modified) {
+            this.result = result;
+            this.table = table;
+            this.rollup = rollup;
+            this.index = index;
+            this.metrics = metrics;
+            this.mode = mode;
+            this.newRecords = newRecords;
+            this.modified = modified;
+        }
+    }
+
+    /**
+     * Reloads the watched file in the background and builds the new table, rollup and index
+     * there as well, so done() only swaps them in. When rows were only appended, copies of the
+     * shown table and rollup are extended with the new records instead of being built again.
+     */
+    private class RefreshWorker extends SwingWorker<Refresh, Void> {
+        private final IncrementalLoader loader;
+        private final boolean priming;
+        private final long shownModified;
+        private final PurchaseTable shownTable;
+        private final RollupEngine shownRollup;
+
+        /**
+         * @param priming       First read after watch mode was turned on; only shown if the file changed since it was loaded
+         * @param shownModified Modification time of the file when the shown data was read
+         * @param shownTable    Table on screen, left unchanged
+         * @param shownRollup   Rollup of the shown table, left unchanged
+         */
+        RefreshWorker(IncrementalLoader loader, boolean priming, long shownModified, PurchaseTable shownTable,
+                      RollupEngine shownRollup) {
+            this.loader = loader;
+            this.priming = priming;
+            this.shownModified = shownModified;
+            this.shownTable = shownTable;
+            this.shownRollup = shownRollup;
+        }
+
+        @Override
+        protected Refresh doInBackground() throws Exception {
+            long modified = new File(loader.getFilePath()).lastModified();
+            RecordingLoadMetrics metrics = new RecordingLoadMetrics();
+            loader.getOptions().setMetrics(metrics);
+            ExcelReaderUtility.LoadResult before = loader.getResult();
+            ExcelReaderUtility.LoadResult result = loader.load();
+            if (loader.getLastMode() == IncrementalLoader.Mode.UNCHANGED || (priming && modified == shownModified)
+                    || (loader.getLastMode() == IncrementalLoader.Mode.APPENDED && sameRows(before, result))) {
+                return null; // What is shown is current
+            }
+            List<PurchaseRecord> records = result.getRecords();
+            int newRecords = loader.getNewRecordCount();
+            PurchaseTable table;
+            RollupEngine rollup;
+            // A single sheet's appended records follow the shown ones, so only they need adding
+            if (loader.getLastMode() == IncrementalLoader.Mode.APPENDED && result.getSheets().size() == 1
+                    && shownTable.size() + newRecords == records.size()) {
+                table = shownTable.copy();
+                rollup = shownRollup.copy();
+                for (PurchaseRecord record : records.subList(records.size() - newRecords, records.size())) {
+                    table.add(record);
+                    rollup.add(record);
+                }
+            } else {
+                table = PurchaseTable.from(records, result.getDictionaries());
+                rollup = RollupEngine.compute(table);
+            }
+            return new Refresh(result, table, rollup, RecordIndex.build(table), metrics,
+                    loader.getLastMode(), newRecords, modified);
+        }
+
+        /** Whether a reload found no rows beyond the ones loaded before, e.g. after the file was only touched. */
+        private boolean sameRows(ExcelReaderUtility.LoadResult before, ExcelReaderUtility.LoadResult after) {
+            for (int i = 0; i < after.getSheets().size(); i++) {
+                if (before.getSheets().get(i).getDataRange().getLastRow() != after.getSheets().get(i).getDataRange().getLastRow()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        protected void done() {
+            if (loader != watchLoader || (loadWorker != null && !loadWorker.isDone())) {
+                return; // Watching stopped or another file is being opened
+            }
+            try {
+                Refresh refresh = get();
+                if (refresh != null) {
+                    showRefresh(refresh);
+                }
+            } catch (ExecutionException ex) {
+                // Often a save still in progress; the next change event tries again
+                statusLabel.setText("Refresh failed: " + ex.getCause().getMessage());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            if (refreshPending) {
+                refreshFromFile();
+            }
+        }
+    }
+
+    /**
+     * Swaps a reloaded file into the view in one go on the EDT, keeping the scroll positions,
+     * the filters and, if its row is still there, the selected row.
+     */
+    private void showRefresh(Refresh refresh) {
+        Point tablePosition = tableScrollPane.getViewport().getViewPosition();
+        Point analysisPosition = analysisScrollPane.getViewport().getViewPosition();
+        int selectedRow = dataTable.getSelectedRow();
+        int selectedTableRow = selectedRow >= 0 ? tableModel.toTableRow(selectedRow) : -1;
+
+        currentTable = refresh.table;
+        currentRecords = currentTable.asList();
+        currentRollup = refresh.rollup;
+        shownModified = refresh.modified;
+        populateTable(currentTable);
+        installIndex(refresh.index);
+        applyFilter();
+        displayAnalysis(refresh.result.getAnalysis(), refresh.metrics, refresh.rollup, refresh.result.isFromCache());
+
+        // Appending keeps row numbers, so the same record is selected again
+        if (refresh.mode == IncrementalLoader.Mode.APPENDED && selectedTableRow >= 0) {
+            int row = tableModel.toViewRow(selectedTableRow);
+            if (row >= 0) {
+                dataTable.setRowSelectionInterval(row, row);
+            }
+        }
+        // Restore after the new sizes are laid out
+        SwingUtilities.invokeLater(() -> {
+            restoreViewPosition(tableScrollPane, tablePosition);
+            restoreViewPosition(analysisScrollPane, analysisPosition);
+        });
+
+        String change = refresh.mode == IncrementalLoader.Mode.APPENDED
+                ? refresh.newRecords + " new" : "file rewritten, read in full";
+        statusLabel.setText(String.format("Refreshed %s at %s: %d records (%s)", new File(currentFilePath).getName(),
+                LocalTime.now().format(TIME_FORMATTER), currentTable.size(), change));
+    }
+
+    private static void restoreViewPosition(JScrollPane scrollPane, Point position) {
+        JViewport viewport = scrollPane.getViewport();
+        Dimension view = viewport.getViewSize();
+        Dimension extent = viewport.getExtentSize();
+        viewport.setViewPosition(new Point(
+                Math.max(0, Math.min(position.x, view.width - extent.width)),
+                Math.max(0, Math.min(position.y, view.height - extent.height))));
+    }
+
+    /**
+     * Shows the loaded table in the JTable.
+     * The model formats only the rows being painted, so this is a single event even for huge files.
+     */
+    private void populateTable(PurchaseTable table) {
+        tableModel.setTable(table);
 
         // Auto-resize columns
         dataTable.setAutoResizeMode(JTable.AUTO_RESIZE_ALL_COLUMNS);
     }
 
     /**
-     * Displays analysis results in the analysis text area.
+     * Displays analysis results in the analysis text area, followed by where the load spent its time.
+     * Sales figures come from the rollup built while loading, not from another pass over the records.
      */
-    private void displayAnalysis(ExcelReaderUtility.ExcelAnalysis analysis) {
+    private void displayAnalysis(ExcelReaderUtility.ExcelAnalysis analysis, RecordingLoadMetrics metrics,
+                                 RollupEngine rollup, boolean fromCache) {
         StringBuilder sb = new StringBuilder();
         sb.append("SALES DATA ANALYSIS\n");
         sb.append("===================\n\n");
@@ -346,41 +891,51 @@ public class ExcelViewer extends JFrame {
             sb.append("\n");
         }
 
-        // Sales summary statistics
-        if (currentRecords != null && !currentRecords.isEmpty()) {
+        // Sales summary statistics, read from the precomputed rollup
+        if (rollup.getRecordCount() > 0) {
             sb.append("SALES SUMMARY:\n");
             sb.append("--------------\n");
 
-            BigDecimal totalRevenue = currentRecords.stream()
-                    .filter(r -> r.getTotalCost() != null)
-                    .map(PurchaseRecord::getTotalCost)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            int totalQuantity = currentRecords.stream()
-                    .mapToInt(PurchaseRecord::getQuantity)
-                    .sum();
-
-            long uniqueProducts = currentRecords.stream()
-                    .map(PurchaseRecord::getItemName)
-                    .filter(name -> name != null && !name.trim().isEmpty())
-                    .distinct()
-                    .count();
-
-            long uniqueCustomers = currentRecords.stream()
-                    .map(PurchaseRecord::getVendor)
-                    .filter(vendor -> vendor != null && !vendor.trim().isEmpty())
-                    .distinct()
-                    .count();
+            BigDecimal totalRevenue = BigDecimal.valueOf(rollup.getRevenueCents(), 2);
+            long totalQuantity = rollup.getUnits();
 
             sb.append(String.format("Total Revenue: $%.2f\n", totalRevenue));
             sb.append(String.format("Total Units Sold: %d\n", totalQuantity));
-            sb.append(String.format("Unique Products: %d\n", uniqueProducts));
-            sb.append(String.format("Unique Customers: %d\n", uniqueCustomers));
+            sb.append(String.format("Unique Products: %d\n", rollup.getUniqueProducts()));
+            sb.append(String.format("Unique Customers: %d\n", rollup.getUniqueCustomers()));
 
             if (totalQuantity > 0) {
                 BigDecimal avgRevenuePerUnit = totalRevenue.divide(BigDecimal.valueOf(totalQuantity), 2, BigDecimal.ROUND_HALF_UP);
                 sb.append(String.format("Average Revenue per Unit: $%.2f\n", avgRevenuePerUnit));
             }
+
+            RollupEngine.Cube months = rollup.getCube(RollupEngine.Dimension.MONTH);
+            if (months.size() > 0) {
+                sb.append("\nMONTHLY SALES:\n");
+                sb.append("--------------\n");
+                for (int cell : months.cellsByKey()) {
+                    sb.append(String.format("%s: %d sales, %d units, %s\n", months.getLabel(cell), months.getCount(cell),
+                            months.getUnitsSum(cell), PurchaseTableModel.formatCents(months.getRevenueSum(cell))));
+                }
+            }
+
+            RollupEngine.Cube products = rollup.getCube(RollupEngine.Dimension.PRODUCT);
+            int[] topProducts = products.cellsByRevenue();
+            sb.append("\nTOP PRODUCTS BY REVENUE:\n");
+            sb.append("------------------------\n");
+            for (int i = 0; i < Math.min(TOP_PRODUCTS, topProducts.length); i++) {
+                int cell = topProducts[i];
+                sb.append(String.format("%d. %s: %s (%d units)\n", i + 1, products.getLabel(cell),
+                        PurchaseTableModel.formatCents(products.getRevenueSum(cell)), products.getUnitsSum(cell)));
+            }
+        }
+
+        sb.append("\nLOAD DETAILS:\n");
+        sb.append("-------------\n");
+        if (fromCache) {
+            sb.append("Loaded from parse cache\n");
+        } else {
+            sb.append(metrics.toReport());
         }
 
         analysisArea.setText(sb.toString());
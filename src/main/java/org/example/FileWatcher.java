@@ -0,0 +1,102 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Watches one file and reports when it has been saved again.
+ * A WatchService can only watch directories, so the file's directory is registered and events
+ * for other files are ignored. Excel and most editors save in several steps (write a temporary
+ * file, delete or rename the old one, rename the new one), so events are debounced: the callback
+ * runs once no event for the file has arrived for the debounce period, and only if the file exists.
+ *
+ * The callback runs on the watcher's own daemon thread; hand work for Swing over to the EDT.
+ */
+public class FileWatcher implements Closeable {
+
+    private final Path file;
+    private final long debounceMillis;
+    private final Runnable onChange;
+    private final WatchService watchService;
+    private volatile boolean closed;
+
+    /**
+     * Starts watching.
+     *
+     * @param debounceMillis Quiet time after the last event before onChange runs
+     * @param onChange       Called once per settled change
+     * @throws IOException if the directory cannot be watched
+     */
+    public FileWatcher(Path file, long debounceMillis, Runnable onChange) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.debounceMillis = debounceMillis;
+        this.onChange = onChange;
+
+        Path directory = this.file.getParent();
+        this.watchService = directory.getFileSystem().newWatchService();
+        try {
+            directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        } catch (IOException | RuntimeException e) {
+            watchService.close();
+            throw e;
+        }
+
+        Thread thread = new Thread(this::watch, "watch-" + this.file.getFileName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void watch() {
+        Path name = file.getFileName();
+        boolean pending = false; // A change was seen and the debounce period is running
+        try {
+            while (!closed) {
+                WatchKey key = pending ? watchService.poll(debounceMillis, TimeUnit.MILLISECONDS) : watchService.take();
+                if (key == null) {
+                    // Quiet long enough; a deleted file is reported when it is created again
+                    pending = false;
+                    if (Files.isRegularFile(file)) {
+                        onChange.run();
+                    }
+                    continue;
+                }
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    // On overflow events were lost, so the file may have changed
+                    if (event.kind() == OVERFLOW || name.equals(event.context())) {
+                        pending = true;
+                    }
+                }
+                if (!key.reset()) {
+                    return; // The directory is gone
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Stops watching; a debounced change that has not been reported yet is dropped.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        watchService.close();
+    }
+}
@@ -0,0 +1,23 @@
+package org.example;
+
+/**
+ * How formula cells are turned into values while reading a workbook.
+ */
+public enum FormulaMode {
+    /**
+     * Use the result Excel saved with the file and never run the formula evaluator.
+     * Fastest; right for exports that were saved by Excel.
+     */
+    CACHED_ONLY,
+
+    /**
+     * Always recalculate formulas with POI's evaluator (the default).
+     */
+    EVALUATE,
+
+    /**
+     * Use the saved result when there is one and evaluate only formulas saved without a result,
+     * e.g. files written by tools that do not calculate.
+     */
+    EVALUATE_ON_MISSING
+}
@@ -0,0 +1,144 @@
+package org.example;
+
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Resolves formula cells to values according to a FormulaMode, for one load (or one
+ * parallel chunk of a load - the resolver is not thread-safe).
+ *
+ * Results are cached per cell, so a formula read by the column statistics and again by
+ * the record decoder is evaluated once. Rows are decoded one after another, so only the
+ * current row's results are kept; this keeps memory flat on large sheets.
+ * The FormulaEvaluator is created on first use and shared by all cells.
+ * Evaluation time goes to the load's LoadMetrics. Cell errors go to the error sink, which is the
+ * metrics unless the caller collects them itself, e.g. per chunk to report them in row order.
+ */
+class FormulaResolver {
+
+    private final Workbook workbook;
+    private final FormulaMode mode;
+    private final LoadMetrics metrics;
+    private final Consumer<String> errors;
+    private FormulaEvaluator evaluator;
+
+    // Evaluation time not yet reported to metrics
+    private long evaluationNanos;
+    private int evaluations;
+
+    // Results for the cells of cachedRow, indexed by column
+    private int cachedRow = -1;
+    private CellValue[] rowValues = new CellValue[16];
+
+    FormulaResolver(Workbook workbook, FormulaMode mode, LoadMetrics metrics) {
+        this(workbook, mode, metrics, metrics::recordError);
+    }
+
+    /**
+     * @param errors Receives cell error messages; only called while the metrics are enabled
+     */
+    FormulaResolver(Workbook workbook, FormulaMode mode, LoadMetrics metrics, Consumer<String> errors) {
+        this.workbook = workbook;
+        this.mode = mode;
+        this.metrics = metrics;
+        this.errors = errors;
+    }
+
+    /**
+     * Value of a FORMULA cell.
+     *
+     * @throws RuntimeException if evaluation fails; the cached result may still be readable from the cell
+     */
+    CellValue resolve(Cell cell) {
+        int rowIndex = cell.getRowIndex();
+        int columnIndex = cell.getColumnIndex();
+        if (rowIndex != cachedRow) {
+            Arrays.fill(rowValues, null);
+            cachedRow = rowIndex;
+        }
+        if (columnIndex >= rowValues.length) {
+            rowValues = Arrays.copyOf(rowValues, Math.max(columnIndex + 1, rowValues.length * 2));
+        }
+
+        CellValue value = rowValues[columnIndex];
+        if (value == null) {
+            value = shouldEvaluate(cell) ? evaluate(cell) : cachedResult(cell);
+            rowValues[columnIndex] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Records a failure to read a cell value, with the cell's address.
+     */
+    void recordError(Cell cell, String message, Exception e) {
+        if (metrics.isEnabled()) {
+            errors.accept(message + " " + cell.getAddress() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reports the evaluation time collected so far. Called once per decoded block of rows,
+     * so timing does not touch shared counters per cell.
+     */
+    void flushMetrics() {
+        if (evaluations > 0) {
+            metrics.recordTime(LoadMetrics.Phase.FORMULA_EVAL, evaluationNanos, evaluations);
+            evaluationNanos = 0;
+            evaluations = 0;
+        }
+    }
+
+    private CellValue evaluate(Cell cell) {
+        if (!metrics.isEnabled()) {
+            return getEvaluator().evaluate(cell);
+        }
+        long start = System.nanoTime();
+        try {
+            return getEvaluator().evaluate(cell);
+        } finally {
+            evaluationNanos += System.nanoTime() - start;
+            evaluations++;
+        }
+    }
+
+    private boolean shouldEvaluate(Cell cell) {
+        switch (mode) {
+            case CACHED_ONLY:
+                return false;
+            case EVALUATE_ON_MISSING:
+                // XSSF keeps the saved result as the raw <v> text; no <v> means nothing was saved
+                return cell instanceof XSSFCell && ((XSSFCell) cell).getRawValue() == null;
+            default:
+                return true;
+        }
+    }
+
+    private FormulaEvaluator getEvaluator() {
+        if (evaluator == null) {
+            evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+        }
+        return evaluator;
+    }
+
+    /**
+     * The result saved with the file, in the same form the evaluator returns.
+     */
+    private static CellValue cachedResult(Cell cell) {
+        switch (cell.getCachedFormulaResultType()) {
+            case NUMERIC:
+                return new CellValue(cell.getNumericCellValue());
+            case STRING:
+                return new CellValue(cell.getStringCellValue());
+            case BOOLEAN:
+                return CellValue.valueOf(cell.getBooleanCellValue());
+            case ERROR:
+                return CellValue.getError(cell.getErrorCellValue());
+            default:
+                return new CellValue("");
+        }
+    }
+}
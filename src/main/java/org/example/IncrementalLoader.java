@@ -0,0 +1,126 @@
+package org.example;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Keeps one workbook loaded and reloads it cheaply as it grows.
+ * Purchase histories are append-only: each day new rows are added at the bottom and the file is
+ * saved again. After the first load, load() decodes only the rows below the ones already loaded
+ * and adds their records and column statistics to the earlier result, provided the earlier rows
+ * are unchanged (checked against a fingerprint of their raw cell contents). If rows above changed
+ * or were removed, or the header or the sheets differ, the whole file is read again instead.
+ * A file whose size and modification time have not changed is not opened at all, unless the
+ * read options changed.
+ *
+ * Not thread-safe: call load() from one thread at a time.
+ */
+public class IncrementalLoader {
+
+    /** How the last load() got its result. */
+    public enum Mode {
+        /** The whole file was read. */
+        FULL,
+        /** Only rows appended since the previous load were decoded. */
+        APPENDED,
+        /** The file had not changed; the previous result was returned. */
+        UNCHANGED
+    }
+
+    private final String filePath;
+    private final ExcelReadOptions options;
+    private ExcelReaderUtility.Checkpoint checkpoint;
+    private String resultKey; // Formula mode and sheet selection of the checkpoint
+    private long fileSize;
+    private long lastModified;
+    private Mode lastMode;
+    private int newRecordCount;
+
+    public IncrementalLoader(String filePath) {
+        this(filePath, new ExcelReadOptions());
+    }
+
+    /**
+     * @param options Read settings; changing the formula mode or sheet selection later forces a full read
+     */
+    public IncrementalLoader(String filePath, ExcelReadOptions options) {
+        this.filePath = filePath;
+        this.options = options;
+    }
+
+    /**
+     * Loads the file, reusing the previous load where possible.
+     *
+     * @return Records and column analysis of the whole file
+     * @throws IOException if the file cannot be read; the previous result is kept
+     */
+    public ExcelReaderUtility.LoadResult load() throws IOException {
+        return load(LoadProgressListener.NONE);
+    }
+
+    /**
+     * Loads the file, reusing the previous load where possible.
+     *
+     * @param listener Receives the records decoded by this call: all of them after a full read,
+     *                 only the appended ones otherwise
+     * @return Records and column analysis of the whole file
+     * @throws IOException if the file cannot be read; the previous result is kept
+     */
+    public ExcelReaderUtility.LoadResult load(LoadProgressListener listener) throws IOException {
+        // Taken before reading, so a save during the read shows up as a change next time
+        File file = new File(filePath);
+        long size = file.length();
+        long modified = file.lastModified();
+        String key = options.resultKey();
+        if (checkpoint != null && size == fileSize && modified == lastModified && key.equals(resultKey)) {
+            lastMode = Mode.UNCHANGED;
+            newRecordCount = 0;
+            return checkpoint.getResult();
+        }
+
+        ExcelReaderUtility.Checkpoint next = ExcelReaderUtility.reload(filePath, options, listener, checkpoint);
+        checkpoint = next;
+        resultKey = key;
+        fileSize = size;
+        lastModified = modified;
+        if (next.isIncremental()) {
+            lastMode = Mode.APPENDED;
+            newRecordCount = next.getAppendedRecords();
+        } else {
+            lastMode = Mode.FULL;
+            newRecordCount = next.getResult().getRecords().size();
+        }
+        return next.getResult();
+    }
+
+    /** Result of the last successful load, or null before the first one. */
+    public ExcelReaderUtility.LoadResult getResult() {
+        return checkpoint != null ? checkpoint.getResult() : null;
+    }
+
+    /** How the last successful load got its result, or null before the first one. */
+    public Mode getLastMode() {
+        return lastMode;
+    }
+
+    /** Records decoded by the last successful load: every record after a full read, else the appended ones. */
+    public int getNewRecordCount() {
+        return newRecordCount;
+    }
+
+    /** Forgets the previous load, so the next load() reads the whole file. */
+    public void reset() {
+        checkpoint = null;
+        lastMode = null;
+        newRecordCount = 0;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    /** The read settings; metrics may be swapped between loads. */
+    public ExcelReadOptions getOptions() {
+        return options;
+    }
+}
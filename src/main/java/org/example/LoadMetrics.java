@@ -0,0 +1,91 @@
+package org.example;
+
+/**
+ * Timers and counters for a workbook load, in place of debug prints.
+ * Pass an implementation through ExcelReadOptions.setMetrics; the default, NOOP, records
+ * nothing and reports isEnabled() == false, so the readers skip even the System.nanoTime calls.
+ *
+ * Times may be reported from several decoding threads at once, and FORMULA_EVAL and ANALYSIS
+ * time is part of ROW_DECODE time.
+ */
+public interface LoadMetrics {
+
+    /**
+     * Phases of a load.
+     */
+    enum Phase {
+        /** Opening the .xlsx package (zip directory). */
+        OPEN,
+        /** Parsing workbook, shared strings, styles and sheet XML into the object model. */
+        SHEET_PARSE,
+        /** Finding the header and the data range. */
+        RANGE_DETECTION,
+        /** Hashing previously loaded rows to check they are unchanged (incremental reloads). */
+        FINGERPRINT,
+        /** Decoding data rows into records, wall-clock time. */
+        ROW_DECODE,
+        /** Evaluating formula cells, summed over threads. */
+        FORMULA_EVAL,
+        /** Feeding the column statistics, summed over threads. */
+        ANALYSIS
+    }
+
+    /** Metrics that record nothing. */
+    LoadMetrics NOOP = new LoadMetrics() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public void recordTime(Phase phase, long nanos, int count) {
+        }
+
+        @Override
+        public void recordRows(int ok, int skipped, int errored) {
+        }
+
+        @Override
+        public void recordError(String message) {
+        }
+    };
+
+    /**
+     * Whether anything is recorded. Callers skip timing when false.
+     */
+    boolean isEnabled();
+
+    /**
+     * Adds time spent in a phase.
+     *
+     * @param count Number of operations the time covers, e.g. formulas evaluated
+     */
+    void recordTime(Phase phase, long nanos, int count);
+
+    /**
+     * Adds row outcomes: rows that became records, rows skipped as empty or without an item
+     * name, and rows that failed to decode.
+     */
+    void recordRows(int ok, int skipped, int errored);
+
+    /**
+     * Records a row or cell error, e.g. "Error processing row 12: ...".
+     */
+    void recordError(String message);
+
+    /**
+     * Start time for stopTimer, or 0 when disabled.
+     */
+    default long startTimer() {
+        return isEnabled() ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time since startTimer as one operation of the phase.
+     */
+    default void stopTimer(Phase phase, long start) {
+        if (isEnabled()) {
+            recordTime(phase, System.nanoTime() - start, 1);
+        }
+    }
+}
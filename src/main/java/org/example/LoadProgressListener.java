@@ -0,0 +1,30 @@
+package org.example;
+
+import java.util.List;
+
+/**
+ * Receives records while ExcelReaderUtility.load is still decoding, so a UI can show the
+ * first rows before the whole sheet is done. Batches arrive in sheet order on the loading
+ * thread. Returning true from isCancelled stops the load with a CancellationException.
+ */
+public interface LoadProgressListener {
+
+    /** Listener that ignores progress and never cancels. */
+    LoadProgressListener NONE = (records, rowsDone, rowsTotal) -> { };
+
+    /**
+     * Called with the records decoded since the previous call.
+     *
+     * @param records   New records, in sheet order
+     * @param rowsDone  Sheet rows of the data range processed so far
+     * @param rowsTotal Sheet rows in the data range
+     */
+    void onRecords(List<PurchaseRecord> records, int rowsDone, int rowsTotal);
+
+    /**
+     * Polled between batches; return true to abandon the load.
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+}
@@ -1,5 +1,8 @@
 package org.example;
 
+import java.io.IOException;
+import java.util.Arrays;
+
 /**
  * Main application entry point.
  * This class now only handles application startup.
@@ -9,12 +12,62 @@ package org.example;
 public class Main {
 
     /**
-     * Main method - launches the GUI application.
+     * Main method - launches the GUI application, or runs headless when asked to.
+     *
+     * Usage:
+     *   (no arguments)                          start the Swing viewer
+     *   --batch &lt;directory|glob&gt; [--threads N]   ingest many workbooks and print a report
+     *   --analyze &lt;file&gt; [--format json|csv]     print one workbook's statistics, see CliAnalyzer
      *
-     * @param args Command line arguments (not used)
+     * @param args Command line arguments
      */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--batch")) {
+            System.exit(runBatch(args));
+        }
+        if (args.length > 0 && args[0].equals("--analyze")) {
+            CliAnalyzer.main(Arrays.copyOfRange(args, 1, args.length));
+        }
+
         // Launch the GUI application
         ExcelViewer.main(args);
     }
-}
\ No newline at end of file
+
+    /**
+     * Runs batch ingestion and prints the per-file report.
+     *
+     * @return Process exit code: 0 if all files were read, 1 if any failed, 2 on bad usage
+     */
+    private static int runBatch(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: --batch <directory|glob> [--threads N]");
+            return 2;
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                try {
+                    threads = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid thread count: " + args[i]);
+                    return 2;
+                }
+            } else {
+                System.err.println("Unknown option: " + args[i]);
+                return 2;
+            }
+        }
+
+        try {
+            RecordingLoadMetrics metrics = new RecordingLoadMetrics();
+            BatchIngestionService.BatchResult result = new BatchIngestionService(threads, metrics).ingest(args[1]);
+            System.out.print(result.toReport());
+            System.out.print(metrics.toReport());
+            return result.getFailureCount() > 0 ? 1 : 0;
+        } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+            System.err.println("Batch ingestion failed: " + e.getMessage());
+            return 2;
+        }
+    }
+}
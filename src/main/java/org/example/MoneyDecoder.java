@@ -0,0 +1,141 @@
+package org.example;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Turns cell values into money amounts as long cents, rounding half-up (away from zero).
+ * Neither path allocates for ordinary amounts. Numbers are not routed through BigDecimal
+ * and text is not trimmed into a copy.
+ *
+ * A double is rounded the way its shortest decimal form would be, which is the value Excel
+ * shows. So 1.005 becomes 101 cents even though the nearest double is slightly below 1.005.
+ * This matches BigDecimal.valueOf(value).setScale(2, HALF_UP).
+ */
+public final class MoneyDecoder {
+
+    /** Returned when a value is not a number. */
+    public static final long NO_VALUE = Long.MIN_VALUE;
+
+    // Below this magnitude a double is far more precise than a cent, so the arithmetic below is exact
+    private static final double EXACT_LIMIT = 1e13;
+
+    // More digits than this may overflow a long while parsing
+    private static final int MAX_DIGITS = 17;
+
+    private MoneyDecoder() {
+    }
+
+    /**
+     * Converts a number to cents, or NO_VALUE for NaN, infinities and amounts too large for a long.
+     */
+    public static long toCents(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return NO_VALUE;
+        }
+        double magnitude = Math.abs(value);
+        if (magnitude >= EXACT_LIMIT) {
+            try {
+                return toCents(BigDecimal.valueOf(value));
+            } catch (ArithmeticException e) {
+                return NO_VALUE; // Does not fit in a long
+            }
+        }
+
+        double whole = Math.floor(magnitude * 100);
+        // (whole + 0.5) / 100 is the double nearest to the decimal tie "x.xx5" (division is
+        // correctly rounded), so comparing against it decides the rounding without
+        // the error of magnitude * 100
+        double tie = (whole + 0.5) / 100;
+        long cents = (long) whole + (magnitude >= tie ? 1 : 0);
+        return value < 0 ? -cents : cents;
+    }
+
+    /**
+     * Converts an amount to cents. Null counts as zero.
+     *
+     * @throws ArithmeticException if the amount does not fit in a long
+     */
+    public static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Parses text such as "33.99", " -12.5 " or "+4" into cents, or NO_VALUE if it is not a number.
+     * Accepts the same input as Double.parseDouble on the trimmed text. Plain decimals are
+     * parsed digit by digit, and anything else (exponents, "Infinity"...) goes through
+     * Double.parseDouble.
+     */
+    public static long parseCents(CharSequence text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+
+        long cents = 0;
+        int digits = 0;
+        int fractionDigits = -1; // -1 until the decimal point is seen
+        boolean roundUp = false;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (c >= '0' && c <= '9') {
+                if (fractionDigits < 2) {
+                    cents = cents * 10 + (c - '0');
+                    if (++digits > MAX_DIGITS) {
+                        return parseSlow(text, start, end);
+                    }
+                } else if (fractionDigits == 2) {
+                    roundUp = c >= '5'; // Half-up only looks at the first dropped digit
+                }
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else {
+                return parseSlow(text, start, end);
+            }
+        }
+        if (digits == 0 && fractionDigits <= 0) {
+            return parseSlow(text, start, end); // No digits at all, e.g. "" or "-"
+        }
+
+        // Scale to exactly two decimals
+        for (int scale = Math.max(fractionDigits, 0); scale < 2; scale++) {
+            cents *= 10;
+        }
+        if (roundUp) {
+            cents++;
+        }
+        return negative ? -cents : cents;
+    }
+
+    /**
+     * Amount of cents as a BigDecimal with two decimals.
+     */
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static long parseSlow(CharSequence text, int start, int end) {
+        try {
+            return toCents(Double.parseDouble(text.subSequence(start, end).toString()));
+        } catch (NumberFormatException e) {
+            return NO_VALUE;
+        }
+    }
+}
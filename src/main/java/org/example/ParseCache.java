@@ -0,0 +1,465 @@
+package org.example;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * On-disk cache of parsed workbooks.
+ * After a load, the records (in PurchaseTable column form), the column analysis and the
+ * column bindings of each sheet are written to a compact binary snapshot. Opening the same unchanged file again
+ * memory-maps the snapshot instead of unzipping, parsing and evaluating the workbook.
+ *
+ * An entry is valid only while the file's path, size, modification time and SHA-256 content
+ * hash all match, and only for the same sheet selection and formula mode. The cache directory is kept under a size limit by deleting the least
+ * recently used snapshots.
+ *
+ * Money values come back rounded to whole cents, the same precision PurchaseTable keeps.
+ */
+public class ParseCache {
+
+    private static final int MAGIC = 0x50435331; // "PCS1"
+    private static final int VERSION = 3;
+    private static final String SUFFIX = ".pcache";
+    private static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    private final Path directory;
+    private final long maxBytes;
+
+    /**
+     * @param directory Where snapshots are stored; created on first write
+     * @param maxBytes  Total size the snapshots may take before old ones are evicted
+     */
+    public ParseCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Cache in the user's home directory with a 256 MB limit.
+     */
+    public static ParseCache defaultCache() {
+        return new ParseCache(Paths.get(System.getProperty("user.home"), ".sales-analyzer", "cache"), DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Returns the cached result for an unchanged file, or parses the file with
+     * ExcelReaderUtility.load and caches the result.
+     * On a cache hit the listener gets all records in one batch and the result reports isFromCache().
+     */
+    public ExcelReaderUtility.LoadResult load(String filePath, ExcelReadOptions options,
+                                              LoadProgressListener listener) throws IOException {
+        FileKey key = FileKey.of(Paths.get(filePath));
+
+        ExcelReaderUtility.LoadResult cached = read(key, options.resultKey());
+        if (cached != null) {
+            listener.onRecords(cached.getRecords(), 1, 1);
+            return cached;
+        }
+
+        // Hash before parsing, so the stored hash is of the bytes that were decoded
+        key.contentHash();
+        ExcelReaderUtility.LoadResult result = ExcelReaderUtility.load(filePath, options, listener);
+        try {
+            write(key, options.resultKey(), result);
+        } catch (IOException e) {
+            // A cache that cannot be written just means the next load parses again
+            options.getMetrics().recordError("Could not write parse cache: " + e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the cached result for the file if a valid snapshot exists, otherwise null.
+     */
+    public ExcelReaderUtility.LoadResult get(String filePath) throws IOException {
+        return get(filePath, new ExcelReadOptions());
+    }
+
+    /**
+     * Returns the cached result for the file if a valid snapshot loaded with the same sheet
+     * selection and formula mode exists, otherwise null.
+     */
+    public ExcelReaderUtility.LoadResult get(String filePath, ExcelReadOptions options) throws IOException {
+        return read(FileKey.of(Paths.get(filePath)), options.resultKey());
+    }
+
+    /**
+     * Removes the snapshot of a file, if any.
+     */
+    public void invalidate(String filePath) throws IOException {
+        Files.deleteIfExists(entryPath(Paths.get(filePath).toAbsolutePath().normalize().toString()));
+    }
+
+    /**
+     * The cached result, or null on a miss. Snapshots that cannot be used are deleted only after
+     * the channel is closed (Windows refuses to delete an open file), and any I/O failure while
+     * reading counts as a miss, so a bad cache entry never fails a load.
+     */
+    private ExcelReaderUtility.LoadResult read(FileKey key, String resultKey) {
+        Path entry = entryPath(key.path);
+        if (!Files.exists(entry)) {
+            return null;
+        }
+
+        ExcelReaderUtility.LoadResult result = null;
+        boolean stale = false;
+        try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                stale = true;
+            } else {
+                String path = readString(buffer);
+                long size = buffer.getLong();
+                long modified = buffer.getLong();
+                byte[] hash = new byte[buffer.getInt()];
+                buffer.get(hash);
+                if (!path.equals(key.path) || size != key.size || modified != key.modified
+                        || !Arrays.equals(hash, key.contentHash())) {
+                    stale = true; // The file changed since it was cached
+                } else if (readString(buffer).equals(resultKey)) {
+                    result = readResult(buffer);
+                } // Else loaded with other options; the next write replaces it
+            }
+        } catch (IOException | RuntimeException e) {
+            // Unreadable, truncated or corrupt snapshot (BufferUnderflowException etc.)
+            stale = true;
+        }
+
+        if (stale) {
+            discard(entry);
+        } else if (result != null) {
+            touch(entry);
+        }
+        return result;
+    }
+
+    /**
+     * Deletes an unusable snapshot. If that fails (e.g. the mapping is still open on Windows),
+     * the next write replaces it.
+     */
+    private static void discard(Path entry) {
+        try {
+            Files.deleteIfExists(entry);
+        } catch (IOException e) {
+            // Left for the next write or eviction
+        }
+    }
+
+    /**
+     * Marks a snapshot as recently used, for eviction.
+     */
+    private static void touch(Path entry) {
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Only makes the entry look older to eviction
+        }
+    }
+
+    private void write(FileKey key, String resultKey, ExcelReaderUtility.LoadResult result) throws IOException {
+        Files.createDirectories(directory);
+        Path entry = entryPath(key.path);
+        Path temp = Files.createTempFile(directory, "entry", ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, key.path);
+            out.writeLong(key.size);
+            out.writeLong(key.modified);
+            byte[] hash = key.contentHash();
+            out.writeInt(hash.length);
+            out.write(hash);
+            writeString(out, resultKey);
+            writeResult(out, result);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        evict();
+    }
+
+    /**
+     * Deletes least recently used snapshots until the directory is within maxBytes.
+     */
+    private void evict() throws IOException {
+        List<Path> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).forEach(entries::add);
+        }
+
+        Map<Path, FileTime> lastUsed = new HashMap<>();
+        long total = 0;
+        for (Path entry : entries) {
+            lastUsed.put(entry, Files.getLastModifiedTime(entry));
+            total += Files.size(entry);
+        }
+        entries.sort(Comparator.comparing(lastUsed::get));
+
+        for (Path entry : entries) {
+            if (total <= maxBytes) {
+                break;
+            }
+            long size = Files.size(entry);
+            try {
+                Files.delete(entry);
+                total -= size;
+            } catch (IOException e) {
+                // Still mapped or in use; try again on the next write
+            }
+        }
+    }
+
+    private Path entryPath(String absolutePath) {
+        return directory.resolve(toHex(sha256(absolutePath.getBytes(StandardCharsets.UTF_8))) + SUFFIX);
+    }
+
+    // Snapshot body: per sheet name, data range and column bindings; dictionaries, record columns,
+    // combined column analysis and the analysis of each sheet
+
+    private static void writeResult(DataOutputStream out, ExcelReaderUtility.LoadResult result) throws IOException {
+        out.writeInt(result.getSheets().size());
+        for (ExcelReaderUtility.SheetResult sheet : result.getSheets()) {
+            writeString(out, sheet.getName());
+            out.writeInt(sheet.getRecordCount());
+
+            DataRange range = sheet.getDataRange();
+            out.writeInt(range.getFirstRow());
+            out.writeInt(range.getLastRow());
+            out.writeBoolean(range.isFromDimension());
+
+            ColumnBindings bindings = sheet.getBindings();
+            for (ColumnBindings.Field field : ColumnBindings.Field.values()) {
+                String alias = bindings.getMatchedAlias(field);
+                writeString(out, alias != null ? alias : "");
+                int[] columns = bindings.columnsFor(field);
+                out.writeInt(columns.length);
+                for (int column : columns) {
+                    out.writeInt(column);
+                }
+            }
+        }
+
+        PurchaseTable table = PurchaseTable.from(result.getRecords());
+        writeDictionary(out, table.getItemDictionary());
+        writeDictionary(out, table.getCategoryDictionary());
+        writeDictionary(out, table.getVendorDictionary());
+        writeDictionary(out, table.getSheetDictionary());
+
+        int rows = table.size();
+        out.writeInt(rows);
+        for (int i = 0; i < rows; i++) out.writeLong(table.getPriceCents(i));
+        for (int i = 0; i < rows; i++) out.writeLong(table.getTotalCostCents(i));
+        for (int i = 0; i < rows; i++) out.writeInt(table.getQuantity(i));
+        for (int i = 0; i < rows; i++) out.writeInt(table.getEpochDay(i));
+        for (int i = 0; i < rows; i++) out.writeInt(table.getItemId(i));
+        for (int i = 0; i < rows; i++) out.writeInt(table.getCategoryId(i));
+        for (int i = 0; i < rows; i++) out.writeInt(table.getVendorId(i));
+        for (int i = 0; i < rows; i++) out.writeInt(table.getSheetId(i));
+
+        ExcelReaderUtility.ExcelAnalysis analysis = result.getAnalysis();
+        writeColumns(out, analysis.getColumns());
+        out.writeInt(analysis.getSheets().size());
+        for (Map.Entry<String, ExcelReaderUtility.ExcelAnalysis> sheet : analysis.getSheets().entrySet()) {
+            writeString(out, sheet.getKey());
+            writeColumns(out, sheet.getValue().getColumns());
+        }
+    }
+
+    private static void writeColumns(DataOutputStream out, List<ExcelReaderUtility.ColumnInfo> columns) throws IOException {
+        out.writeInt(columns.size());
+        for (ExcelReaderUtility.ColumnInfo column : columns) {
+            writeString(out, column.getName());
+            out.writeBoolean(column.isNumeric());
+            out.writeDouble(column.getSum());
+            out.writeDouble(column.getAverage());
+            out.writeInt(column.getNumericCount());
+            out.writeInt(column.getTotalCells());
+            out.writeInt(column.getEmptyCells());
+            out.writeInt(column.getSampleValues().size());
+            for (String sample : column.getSampleValues()) {
+                writeString(out, sample);
+            }
+        }
+    }
+
+    private static ExcelReaderUtility.LoadResult readResult(ByteBuffer in) {
+        PurchaseDictionaries dictionaries = new PurchaseDictionaries();
+
+        int sheetCount = in.getInt();
+        List<ExcelReaderUtility.SheetResult> sheets = new ArrayList<>(sheetCount);
+        for (int s = 0; s < sheetCount; s++) {
+            String name = readString(in);
+            int recordCount = in.getInt();
+            DataRange range = new DataRange(in.getInt(), in.getInt(), in.get() != 0);
+
+            ColumnBindings.Field[] fields = ColumnBindings.Field.values();
+            int[][] boundColumns = new int[fields.length][];
+            String[] matchedAliases = new String[fields.length];
+            for (ColumnBindings.Field field : fields) {
+                String alias = readString(in);
+                matchedAliases[field.ordinal()] = alias.isEmpty() ? null : alias;
+                boundColumns[field.ordinal()] = new int[in.getInt()];
+                for (int i = 0; i < boundColumns[field.ordinal()].length; i++) {
+                    boundColumns[field.ordinal()][i] = in.getInt();
+                }
+            }
+            sheets.add(new ExcelReaderUtility.SheetResult(name, ColumnBindings.of(boundColumns, matchedAliases),
+                    range, recordCount));
+        }
+
+        readDictionary(in, dictionaries.getItems());
+        readDictionary(in, dictionaries.getCategories());
+        readDictionary(in, dictionaries.getVendors());
+        readDictionary(in, dictionaries.getSheets());
+
+        int rows = in.getInt();
+        long[] priceCents = new long[rows];
+        long[] totalCostCents = new long[rows];
+        int[] quantities = new int[rows];
+        int[] epochDays = new int[rows];
+        int[] itemIds = new int[rows];
+        int[] categoryIds = new int[rows];
+        int[] vendorIds = new int[rows];
+        int[] sheetIds = new int[rows];
+        in.asLongBuffer().get(priceCents);
+        in.position(in.position() + rows * Long.BYTES);
+        in.asLongBuffer().get(totalCostCents);
+        in.position(in.position() + rows * Long.BYTES);
+        for (int[] column : new int[][]{quantities, epochDays, itemIds, categoryIds, vendorIds, sheetIds}) {
+            in.asIntBuffer().get(column);
+            in.position(in.position() + rows * Integer.BYTES);
+        }
+        PurchaseTable table = PurchaseTable.fromColumns(rows, priceCents, totalCostCents, quantities, epochDays,
+                itemIds, categoryIds, vendorIds, sheetIds, dictionaries);
+
+        ExcelReaderUtility.ExcelAnalysis analysis = readAnalysis(in);
+        int analyzedSheets = in.getInt();
+        for (int i = 0; i < analyzedSheets; i++) {
+            String name = readString(in);
+            analysis.addSheet(name, readAnalysis(in));
+        }
+
+        return new ExcelReaderUtility.LoadResult(table.asList(), analysis, dictionaries, sheets, true);
+    }
+
+    private static ExcelReaderUtility.ExcelAnalysis readAnalysis(ByteBuffer in) {
+        ExcelReaderUtility.ExcelAnalysis analysis = new ExcelReaderUtility.ExcelAnalysis();
+        int analyzedColumns = in.getInt();
+        for (int i = 0; i < analyzedColumns; i++) {
+            ExcelReaderUtility.ColumnInfo column = new ExcelReaderUtility.ColumnInfo(readString(in));
+            column.setNumeric(in.get() != 0);
+            column.setSum(in.getDouble());
+            column.setAverage(in.getDouble());
+            column.setNumericCount(in.getInt());
+            column.setTotalCells(in.getInt());
+            column.setEmptyCells(in.getInt());
+            int samples = in.getInt();
+            List<String> sampleValues = new ArrayList<>(samples);
+            for (int j = 0; j < samples; j++) {
+                sampleValues.add(readString(in));
+            }
+            column.setSampleValues(sampleValues);
+            analysis.addColumn(column);
+        }
+        return analysis;
+    }
+
+    private static void writeDictionary(DataOutputStream out, StringDictionary dictionary) throws IOException {
+        int size = dictionary.size();
+        out.writeInt(size);
+        for (int code = 0; code < size; code++) {
+            writeString(out, dictionary.get(code));
+        }
+    }
+
+    private static void readDictionary(ByteBuffer in, StringDictionary dictionary) {
+        int size = in.getInt();
+        for (int i = 0; i < size; i++) {
+            dictionary.code(readString(in)); // Codes come back in the order they were written
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Identity of a workbook file on disk. The content hash is computed lazily, since a size or
+     * modification time mismatch already rules an entry out.
+     */
+    private static class FileKey {
+        private final Path file;
+        private final String path;
+        private final long size;
+        private final long modified;
+        private byte[] contentHash;
+
+        private FileKey(Path file, long size, long modified) {
+            this.file = file;
+            this.path = file.toString();
+            this.size = size;
+            this.modified = modified;
+        }
+
+        static FileKey of(Path file) throws IOException {
+            Path absolute = file.toAbsolutePath().normalize();
+            return new FileKey(absolute, Files.size(absolute), Files.getLastModifiedTime(absolute).toMillis());
+        }
+
+        byte[] contentHash() throws IOException {
+            if (contentHash == null) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                    byte[] buffer = new byte[1 << 16];
+                    int read;
+                    while ((read = in.read(buffer)) > 0) {
+                        digest.update(buffer, 0, read);
+                    }
+                    contentHash = digest.digest();
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException("SHA-256 not available", e);
+                }
+            }
+            return contentHash;
+        }
+    }
+}
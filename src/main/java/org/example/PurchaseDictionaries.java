@@ -0,0 +1,47 @@
+package org.example;
+
+/**
+ * The string dictionaries for the repeated PurchaseRecord text fields.
+ * One instance is shared by everything decoded in a single load (or batch), so each
+ * distinct item name, category, vendor and source sheet name is kept once.
+ */
+public class PurchaseDictionaries {
+    private final StringDictionary items;
+    private final StringDictionary categories;
+    private final StringDictionary vendors;
+    private final StringDictionary sheets;
+
+    public PurchaseDictionaries() {
+        this(new StringDictionary(), new StringDictionary(), new StringDictionary(), new StringDictionary());
+    }
+
+    private PurchaseDictionaries(StringDictionary items, StringDictionary categories, StringDictionary vendors,
+                                 StringDictionary sheets) {
+        this.items = items;
+        this.categories = categories;
+        this.vendors = vendors;
+        this.sheets = sheets;
+    }
+
+    /**
+     * Dictionaries with the same values and codes that can be added to without changing these.
+     */
+    public PurchaseDictionaries copy() {
+        return new PurchaseDictionaries(items.copy(), categories.copy(), vendors.copy(), sheets.copy());
+    }
+
+    /**
+     * Replaces the record's item name, category, vendor and sheet name with their canonical instances.
+     */
+    public void intern(PurchaseRecord record) {
+        record.setItemName(items.intern(record.getItemName()));
+        record.setCategory(categories.intern(record.getCategory()));
+        record.setVendor(vendors.intern(record.getVendor()));
+        record.setSourceSheet(sheets.intern(record.getSourceSheet()));
+    }
+
+    public StringDictionary getItems() { return items; }
+    public StringDictionary getCategories() { return categories; }
+    public StringDictionary getVendors() { return vendors; }
+    public StringDictionary getSheets() { return sheets; }
+}
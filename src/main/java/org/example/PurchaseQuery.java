@@ -0,0 +1,156 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * A predicate over purchase rows, evaluated against a RecordIndex.
+ * Queries are built from the static factories and combined with and(), or() and not(), e.g.
+ * customer X in Q3 2024 spending more than 100:
+ *
+ *   PurchaseQuery.and(PurchaseQuery.customer("X"), PurchaseQuery.quarter(2024, 3),
+ *                     PurchaseQuery.totalAbove(100_00))
+ *
+ * Each leaf is answered from one of the index's lookups as a RowBitmap and the combinators work
+ * on the bitmaps, so no row is looked at until aggregation (RecordIndex.aggregate) or display.
+ * Queries are immutable and can be reused across indexes.
+ */
+public final class PurchaseQuery {
+
+    private final Function<RecordIndex, RowBitmap> evaluator;
+    private final String description;
+
+    private PurchaseQuery(Function<RecordIndex, RowBitmap> evaluator, String description) {
+        this.evaluator = evaluator;
+        this.description = description;
+    }
+
+    /** Every row. */
+    public static PurchaseQuery all() {
+        return new PurchaseQuery(RecordIndex::allRows, "all");
+    }
+
+    /** Rows whose product name is exactly the given name. */
+    public static PurchaseQuery product(String itemName) {
+        return new PurchaseQuery(index -> index.rowsWithProduct(itemName), "product = '" + itemName + "'");
+    }
+
+    /** Rows whose product name contains the text; see RecordIndex.searchProducts. */
+    public static PurchaseQuery productContains(String text) {
+        return new PurchaseQuery(index -> index.searchProducts(text), "product contains '" + text + "'");
+    }
+
+    /** Rows of the given customer (vendor). */
+    public static PurchaseQuery customer(String vendor) {
+        return new PurchaseQuery(index -> index.rowsWithCustomer(vendor), "customer = '" + vendor + "'");
+    }
+
+    public static PurchaseQuery category(String category) {
+        return new PurchaseQuery(index -> index.rowsWithCategory(category), "category = '" + category + "'");
+    }
+
+    /** Rows read from the given sheet. */
+    public static PurchaseQuery sheet(String sheetName) {
+        return new PurchaseQuery(index -> index.rowsFromSheet(sheetName), "sheet = '" + sheetName + "'");
+    }
+
+    /**
+     * Rows dated from..to, both inclusive; a null bound leaves that side open.
+     */
+    public static PurchaseQuery between(LocalDate from, LocalDate to) {
+        return new PurchaseQuery(index -> index.rowsBetween(from, to), "date in [" + from + ", " + to + "]");
+    }
+
+    /**
+     * Rows dated in a calendar quarter.
+     *
+     * @param quarter 1 to 4
+     */
+    public static PurchaseQuery quarter(int year, int quarter) {
+        if (quarter < 1 || quarter > 4) {
+            throw new IllegalArgumentException("Quarter must be 1 to 4, was " + quarter);
+        }
+        LocalDate from = LocalDate.of(year, quarter * 3 - 2, 1);
+        return new PurchaseQuery(index -> index.rowsBetween(from, from.plusMonths(3).minusDays(1)),
+                "date in Q" + quarter + " " + year);
+    }
+
+    /** Rows whose total amount is between minCents and maxCents, both inclusive. */
+    public static PurchaseQuery totalBetween(long minCents, long maxCents) {
+        return new PurchaseQuery(index -> index.rowsWithTotalBetween(minCents, maxCents),
+                "total in [" + minCents + ", " + maxCents + "] cents");
+    }
+
+    /** Rows whose total amount is more than the given cents. */
+    public static PurchaseQuery totalAbove(long cents) {
+        return new PurchaseQuery(index -> cents == Long.MAX_VALUE ? RowBitmap.empty()
+                : index.rowsWithTotalBetween(cents + 1, Long.MAX_VALUE), "total > " + cents + " cents");
+    }
+
+    /** Rows whose total amount is less than the given cents. */
+    public static PurchaseQuery totalBelow(long cents) {
+        return new PurchaseQuery(index -> cents == Long.MIN_VALUE ? RowBitmap.empty()
+                : index.rowsWithTotalBetween(Long.MIN_VALUE, cents - 1), "total < " + cents + " cents");
+    }
+
+    /**
+     * Rows matching every query; all rows for none. Stops as soon as the result is empty.
+     */
+    public static PurchaseQuery and(PurchaseQuery... queries) {
+        if (queries.length == 0) {
+            return all();
+        }
+        if (queries.length == 1) {
+            return queries[0];
+        }
+        PurchaseQuery[] parts = queries.clone();
+        return new PurchaseQuery(index -> {
+            RowBitmap rows = parts[0].evaluate(index);
+            for (int i = 1; i < parts.length && !rows.isEmpty(); i++) {
+                rows = rows.and(parts[i].evaluate(index));
+            }
+            return rows;
+        }, join(parts, " AND "));
+    }
+
+    /**
+     * Rows matching any of the queries; no rows for none.
+     */
+    public static PurchaseQuery or(PurchaseQuery... queries) {
+        if (queries.length == 1) {
+            return queries[0];
+        }
+        PurchaseQuery[] parts = queries.clone();
+        return new PurchaseQuery(index -> {
+            RowBitmap rows = RowBitmap.empty();
+            for (PurchaseQuery part : parts) {
+                rows = rows.or(part.evaluate(index));
+            }
+            return rows;
+        }, parts.length == 0 ? "none" : join(parts, " OR "));
+    }
+
+    /** Rows not matching the query. */
+    public static PurchaseQuery not(PurchaseQuery query) {
+        return new PurchaseQuery(index -> query.evaluate(index).not(index.size()), "NOT " + query.nested());
+    }
+
+    RowBitmap evaluate(RecordIndex index) {
+        return evaluator.apply(index);
+    }
+
+    private static String join(PurchaseQuery[] parts, String separator) {
+        return String.join(separator, Arrays.stream(parts).map(PurchaseQuery::nested).toArray(String[]::new));
+    }
+
+    /** The description, in parentheses if it combines other queries. */
+    private String nested() {
+        return description.contains(" AND ") || description.contains(" OR ") ? "(" + description + ")" : description;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -15,6 +15,11 @@ public class PurchaseRecord {
     private String category;
     private String vendor;
     private BigDecimal totalCost;
+    private String sourceSheet;
+
+    // Money in whole cents. The readers set only these; the BigDecimals are created on first use.
+    private long priceCents = MoneyDecoder.NO_VALUE;
+    private long totalCostCents = MoneyDecoder.NO_VALUE;
 
     // Default constructor
     public PurchaseRecord() {
@@ -24,12 +29,12 @@ public class PurchaseRecord {
     public PurchaseRecord(String itemName, BigDecimal price, int quantity,
                           LocalDate purchaseDate, String category, String vendor, BigDecimal totalCost) {
         this.itemName = itemName;
-        this.price = price;
+        setPrice(price);
         this.quantity = quantity;
         this.purchaseDate = purchaseDate;
         this.category = category;
         this.vendor = vendor;
-        this.totalCost = totalCost;
+        setTotalCost(totalCost);
     }
 
     // Getters and Setters
@@ -42,11 +47,27 @@ public class PurchaseRecord {
     }
 
     public BigDecimal getPrice() {
+        if (price == null && priceCents != MoneyDecoder.NO_VALUE) {
+            price = MoneyDecoder.toBigDecimal(priceCents);
+        }
         return price;
     }
 
     public void setPrice(BigDecimal price) {
         this.price = price;
+        this.priceCents = price != null ? MoneyDecoder.toCents(price) : MoneyDecoder.NO_VALUE;
+    }
+
+    /**
+     * Unit price in whole cents (rounded half-up), 0 if there is no price.
+     */
+    public long getPriceCents() {
+        return priceCents != MoneyDecoder.NO_VALUE ? priceCents : 0;
+    }
+
+    public void setPriceCents(long priceCents) {
+        this.priceCents = priceCents;
+        this.price = null;
     }
 
     public int getQuantity() {
@@ -82,11 +103,38 @@ public class PurchaseRecord {
     }
 
     public BigDecimal getTotalCost() {
+        if (totalCost == null && totalCostCents != MoneyDecoder.NO_VALUE) {
+            totalCost = MoneyDecoder.toBigDecimal(totalCostCents);
+        }
         return totalCost;
     }
 
     public void setTotalCost(BigDecimal totalCost) {
         this.totalCost = totalCost;
+        this.totalCostCents = totalCost != null ? MoneyDecoder.toCents(totalCost) : MoneyDecoder.NO_VALUE;
+    }
+
+    /**
+     * Total amount in whole cents (rounded half-up), 0 if there is no total.
+     */
+    public long getTotalCostCents() {
+        return totalCostCents != MoneyDecoder.NO_VALUE ? totalCostCents : 0;
+    }
+
+    public void setTotalCostCents(long totalCostCents) {
+        this.totalCostCents = totalCostCents;
+        this.totalCost = null;
+    }
+
+    /**
+     * Name of the sheet the record was read from, or null if it did not come from a workbook.
+     */
+    public String getSourceSheet() {
+        return sourceSheet;
+    }
+
+    public void setSourceSheet(String sourceSheet) {
+        this.sourceSheet = sourceSheet;
     }
 
     /**
@@ -96,12 +144,12 @@ public class PurchaseRecord {
     public Object[] toObjectArray() {
         return new Object[]{
                 itemName,           // Product Name
-                price,              // Unit Price
+                getPrice(),         // Unit Price
                 quantity,           // Qty Sold
                 purchaseDate,       // Sale Date
                 category,           // Category
                 vendor,             // Customer Name
-                totalCost           // Total Amount
+                getTotalCost()      // Total Amount
         };
     }
 
@@ -110,12 +158,12 @@ public class PurchaseRecord {
     public String toString() {
         return "PurchaseRecord{" +
                 "itemName='" + itemName + '\'' +
-                ", price=" + price +
+                ", price=" + getPrice() +
                 ", quantity=" + quantity +
                 ", purchaseDate=" + purchaseDate +
                 ", category='" + category + '\'' +
                 ", vendor='" + vendor + '\'' +
-                ", totalCost=" + totalCost +
+                ", totalCost=" + getTotalCost() +
                 '}';
     }
 }
\ No newline at end of file
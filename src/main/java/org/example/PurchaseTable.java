@@ -0,0 +1,258 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Column-oriented store for purchase records.
+ * Money is kept as long cents, dates as int epoch-days and the repeated text fields
+ * (item, category, vendor, source sheet) as StringDictionary codes, so a million rows
+ * cost a few tens of MB instead of a million PurchaseRecord object graphs.
+ *
+ * Use asList() where a List&lt;PurchaseRecord&gt; is expected; rows are materialized on access.
+ */
+public class PurchaseTable {
+
+    /** Epoch-day value stored for rows without a purchase date. */
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    /** Dictionary id stored for null strings. */
+    public static final int NO_VALUE = StringDictionary.NO_CODE;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int size = 0;
+    private long[] priceCents = new long[INITIAL_CAPACITY];
+    private long[] totalCostCents = new long[INITIAL_CAPACITY];
+    private int[] quantities = new int[INITIAL_CAPACITY];
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+    private int[] itemIds = new int[INITIAL_CAPACITY];
+    private int[] categoryIds = new int[INITIAL_CAPACITY];
+    private int[] vendorIds = new int[INITIAL_CAPACITY];
+    private int[] sheetIds = new int[INITIAL_CAPACITY];
+
+    private final StringDictionary items;
+    private final StringDictionary categories;
+    private final StringDictionary vendors;
+    private final StringDictionary sheets;
+
+    public PurchaseTable() {
+        this(new PurchaseDictionaries());
+    }
+
+    /**
+     * Creates an empty table that encodes text through existing dictionaries, e.g. the ones
+     * filled while loading. The unique counts come from the dictionary sizes, so the
+     * dictionaries should only hold values of rows that end up in this table.
+     */
+    public PurchaseTable(PurchaseDictionaries dictionaries) {
+        this(dictionaries.getItems(), dictionaries.getCategories(), dictionaries.getVendors(), dictionaries.getSheets());
+    }
+
+    private PurchaseTable(StringDictionary items, StringDictionary categories, StringDictionary vendors,
+                          StringDictionary sheets) {
+        this.items = items;
+        this.categories = categories;
+        this.vendors = vendors;
+        this.sheets = sheets;
+    }
+
+    /**
+     * Builds a table holding the given records, in order.
+     */
+    public static PurchaseTable from(List<PurchaseRecord> records) {
+        return from(records, new PurchaseDictionaries());
+    }
+
+    /**
+     * Builds a table holding the given records, in order, reusing the dictionaries the
+     * records were interned into.
+     */
+    public static PurchaseTable from(List<PurchaseRecord> records, PurchaseDictionaries dictionaries) {
+        PurchaseTable table = new PurchaseTable(dictionaries);
+        table.ensureCapacity(records.size());
+        for (PurchaseRecord record : records) {
+            table.add(record);
+        }
+        return table;
+    }
+
+    /**
+     * Wraps already-encoded columns, e.g. read back from the parse cache. The arrays are used
+     * as-is (not copied) and their ids must be codes of the given dictionaries.
+     */
+    static PurchaseTable fromColumns(int size, long[] priceCents, long[] totalCostCents, int[] quantities,
+                                     int[] epochDays, int[] itemIds, int[] categoryIds, int[] vendorIds,
+                                     int[] sheetIds, PurchaseDictionaries dictionaries) {
+        PurchaseTable table = new PurchaseTable(dictionaries);
+        table.size = size;
+        table.priceCents = priceCents;
+        table.totalCostCents = totalCostCents;
+        table.quantities = quantities;
+        table.epochDays = epochDays;
+        table.itemIds = itemIds;
+        table.categoryIds = categoryIds;
+        table.vendorIds = vendorIds;
+        table.sheetIds = sheetIds;
+        return table;
+    }
+
+    /**
+     * A copy of the rows that can be appended to without changing this table. The copy gets its
+     * own copies of the dictionaries, so values added through it never reach this table's.
+     */
+    public PurchaseTable copy() {
+        PurchaseTable copy = new PurchaseTable(items.copy(), categories.copy(), vendors.copy(), sheets.copy());
+        copy.size = size;
+        copy.priceCents = priceCents.clone();
+        copy.totalCostCents = totalCostCents.clone();
+        copy.quantities = quantities.clone();
+        copy.epochDays = epochDays.clone();
+        copy.itemIds = itemIds.clone();
+        copy.categoryIds = categoryIds.clone();
+        copy.vendorIds = vendorIds.clone();
+        copy.sheetIds = sheetIds.clone();
+        return copy;
+    }
+
+    /**
+     * Appends a record. Prices are taken in whole cents; null prices are stored as 0.
+     */
+    public void add(PurchaseRecord record) {
+        ensureCapacity(size + 1);
+        priceCents[size] = record.getPriceCents();
+        totalCostCents[size] = record.getTotalCostCents();
+        quantities[size] = record.getQuantity();
+        epochDays[size] = record.getPurchaseDate() != null ? (int) record.getPurchaseDate().toEpochDay() : NO_DATE;
+        itemIds[size] = items.code(record.getItemName());
+        categoryIds[size] = categories.code(record.getCategory());
+        vendorIds[size] = vendors.code(record.getVendor());
+        sheetIds[size] = sheets.code(record.getSourceSheet());
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Column accessors by row index
+
+    public String getItemName(int row) { return items.get(itemIds[checkRow(row)]); }
+    public String getCategory(int row) { return categories.get(categoryIds[checkRow(row)]); }
+    public String getVendor(int row) { return vendors.get(vendorIds[checkRow(row)]); }
+    public String getSourceSheet(int row) { return sheets.get(sheetIds[checkRow(row)]); }
+    public int getItemId(int row) { return itemIds[checkRow(row)]; }
+    public int getCategoryId(int row) { return categoryIds[checkRow(row)]; }
+    public int getVendorId(int row) { return vendorIds[checkRow(row)]; }
+    public int getSheetId(int row) { return sheetIds[checkRow(row)]; }
+    public long getPriceCents(int row) { return priceCents[checkRow(row)]; }
+    public long getTotalCostCents(int row) { return totalCostCents[checkRow(row)]; }
+    public int getQuantity(int row) { return quantities[checkRow(row)]; }
+    public int getEpochDay(int row) { return epochDays[checkRow(row)]; }
+
+    public LocalDate getPurchaseDate(int row) {
+        int epochDay = epochDays[checkRow(row)];
+        return epochDay != NO_DATE ? LocalDate.ofEpochDay(epochDay) : null;
+    }
+
+    /**
+     * Materializes one row as a PurchaseRecord.
+     */
+    public PurchaseRecord getRecord(int row) {
+        PurchaseRecord record = new PurchaseRecord();
+        record.setItemName(getItemName(row));
+        record.setPriceCents(priceCents[row]);
+        record.setQuantity(quantities[row]);
+        record.setPurchaseDate(getPurchaseDate(row));
+        record.setCategory(getCategory(row));
+        record.setVendor(getVendor(row));
+        record.setTotalCostCents(totalCostCents[row]);
+        record.setSourceSheet(getSourceSheet(row));
+        return record;
+    }
+
+    /**
+     * Read-only List view over the rows, for code written against List&lt;PurchaseRecord&gt;.
+     * Each get() creates a new PurchaseRecord.
+     */
+    public List<PurchaseRecord> asList() {
+        return new RowView();
+    }
+
+    // Aggregations over the primitive columns
+
+    /** Sum of total cost over all rows, in cents. */
+    public long getTotalRevenueCents() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += totalCostCents[i];
+        }
+        return total;
+    }
+
+    /** Sum of quantity over all rows. */
+    public long getTotalQuantity() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += quantities[i];
+        }
+        return total;
+    }
+
+    /** Number of distinct non-blank item names, straight from the item dictionary. */
+    public int getUniqueItemCount() {
+        return items.nonBlankSize();
+    }
+
+    /** Number of distinct non-blank vendors (customers), straight from the vendor dictionary. */
+    public int getUniqueVendorCount() {
+        return vendors.nonBlankSize();
+    }
+
+    /** Number of distinct non-blank categories, straight from the category dictionary. */
+    public int getUniqueCategoryCount() {
+        return categories.nonBlankSize();
+    }
+
+    public StringDictionary getItemDictionary() { return items; }
+    public StringDictionary getCategoryDictionary() { return categories; }
+    public StringDictionary getVendorDictionary() { return vendors; }
+    public StringDictionary getSheetDictionary() { return sheets; }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of range, size " + size);
+        }
+        return row;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= priceCents.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, priceCents.length + (priceCents.length >> 1));
+        priceCents = Arrays.copyOf(priceCents, newCapacity);
+        totalCostCents = Arrays.copyOf(totalCostCents, newCapacity);
+        quantities = Arrays.copyOf(quantities, newCapacity);
+        epochDays = Arrays.copyOf(epochDays, newCapacity);
+        itemIds = Arrays.copyOf(itemIds, newCapacity);
+        categoryIds = Arrays.copyOf(categoryIds, newCapacity);
+        vendorIds = Arrays.copyOf(vendorIds, newCapacity);
+        sheetIds = Arrays.copyOf(sheetIds, newCapacity);
+    }
+
+    private class RowView extends AbstractList<PurchaseRecord> implements RandomAccess {
+        @Override
+        public PurchaseRecord get(int index) {
+            return getRecord(checkRow(index));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
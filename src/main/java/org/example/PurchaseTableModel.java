@@ -0,0 +1,168 @@
+package org.example;
+
+import javax.swing.table.AbstractTableModel;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only JTable model backed directly by a PurchaseTable.
+ * Cells are formatted only when the table asks for them (i.e. when a row is painted),
+ * and the formatted rows are kept in a small LRU cache sized for what is on screen,
+ * so loading a million rows costs no per-row work on the EDT.
+ *
+ * A row filter (a RowBitmap of table rows, e.g. from RecordIndex) limits the rows shown; view
+ * row i then shows the i-th set row.
+ */
+public class PurchaseTableModel extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String[] COLUMN_NAMES = {"Product Name", "Unit Price", "Qty Sold", "Sale Date", "Customer Name", "Total Amount"};
+    static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+    // Enough formatted rows for a tall window plus some scrolling back and forth
+    private static final int CACHED_ROWS = 512;
+
+    private PurchaseTable table;
+    private int[] visibleRows; // Table rows shown, ascending; null shows every row
+    private final Map<Integer, Object[]> formattedRows = new LinkedHashMap<Integer, Object[]>(CACHED_ROWS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Object[]> eldest) {
+            return size() > CACHED_ROWS;
+        }
+    };
+
+    public PurchaseTableModel() {
+        this.table = new PurchaseTable();
+    }
+
+    /**
+     * Replaces the data shown by the table and notifies listeners with a single event.
+     */
+    public void setTable(PurchaseTable table) {
+        this.table = table != null ? table : new PurchaseTable();
+        this.visibleRows = null;
+        formattedRows.clear();
+        fireTableDataChanged();
+    }
+
+    /**
+     * Appends records to the current table and notifies listeners with one rows-inserted event.
+     * Used while a file is still loading. While a row filter is set the new rows stay hidden.
+     */
+    public void appendRecords(List<PurchaseRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        int firstRow = table.size();
+        for (PurchaseRecord record : records) {
+            table.add(record);
+        }
+        if (visibleRows == null) {
+            fireTableRowsInserted(firstRow, table.size() - 1);
+        }
+    }
+
+    /**
+     * Shows only the given table rows, or every row for null. Notifies listeners with a single event.
+     */
+    public void setRowFilter(RowBitmap rows) {
+        visibleRows = rows != null ? rows.and(RowBitmap.range(0, table.size())).toArray() : null;
+        fireTableDataChanged();
+    }
+
+    public boolean isFiltered() {
+        return visibleRows != null;
+    }
+
+    /**
+     * Table row shown at a view row.
+     */
+    public int toTableRow(int row) {
+        return visibleRows != null ? visibleRows[row] : row;
+    }
+
+    /**
+     * View row showing a table row, or -1 if the row filter hides it.
+     */
+    public int toViewRow(int tableRow) {
+        if (visibleRows == null) {
+            return tableRow < table.size() ? tableRow : -1;
+        }
+        int row = Arrays.binarySearch(visibleRows, tableRow);
+        return row >= 0 ? row : -1;
+    }
+
+    public PurchaseTable getTable() {
+        return table;
+    }
+
+    @Override
+    public int getRowCount() {
+        return visibleRows != null ? visibleRows.length : table.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == 2 ? Integer.class : String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        int tableRow = toTableRow(row);
+        Object[] formatted = formattedRows.get(tableRow);
+        if (formatted == null) {
+            formatted = formatRow(tableRow);
+            formattedRows.put(tableRow, formatted);
+        }
+        return formatted[column];
+    }
+
+    /**
+     * Formats one row for display; only relevant columns are shown (no category).
+     */
+    private Object[] formatRow(int row) {
+        String itemName = table.getItemName(row);
+        LocalDate purchaseDate = table.getPurchaseDate(row);
+        String vendor = table.getVendor(row);
+        return new Object[]{
+                itemName != null ? itemName : "",                                  // Product Name
+                formatCents(table.getPriceCents(row)),                             // Unit Price
+                table.getQuantity(row),                                            // Qty Sold
+                purchaseDate != null ? purchaseDate.format(DATE_FORMATTER) : "",   // Sale Date
+                vendor != null ? vendor : "",                                      // Customer Name
+                formatCents(table.getTotalCostCents(row))                          // Total Amount
+        };
+    }
+
+    /**
+     * Formats cents as "$1234.50" (same output as String.format("$%.2f") without the formatter cost).
+     */
+    static String formatCents(long cents) {
+        StringBuilder sb = new StringBuilder(12).append('$');
+        if (cents < 0) {
+            sb.append('-');
+            cents = -cents;
+        }
+        long fraction = cents % 100;
+        sb.append(cents / 100).append('.');
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction).toString();
+    }
+}
@@ -0,0 +1,512 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Secondary indexes over a loaded PurchaseTable, so filters do not scan every row.
+ * Built once after a load:
+ * - a hash index (row postings per dictionary code) for product, customer, category and sheet,
+ * - the dated rows sorted by epoch day, for date ranges,
+ * - the rows sorted by total amount, for amount ranges,
+ * - a prefix and trigram index over the distinct product names, for name search.
+ *
+ * Every lookup returns a RowBitmap of matching row ids (PurchaseTable row indexes), which can be
+ * combined with and/or/andNot, evaluated from a PurchaseQuery, aggregated, and handed to
+ * PurchaseTableModel.setRowFilter. The table must not change after the index is built.
+ */
+public class RecordIndex {
+
+    private final PurchaseTable table;
+    private final int rowCount;
+    private final StringDictionary items;
+    private final StringDictionary categories;
+    private final StringDictionary vendors;
+    private final StringDictionary sheets;
+    private final Postings itemRows;
+    private final Postings categoryRows;
+    private final Postings vendorRows;
+    private final Postings sheetRows;
+
+    // Rows that have a date, ordered by epoch day (row order within a day)
+    private final int[] rowsByDay;
+    private final int[] sortedDays;
+
+    // Every row, ordered by total amount (row order within an amount)
+    private final int[] rowsByTotal;
+    private final long[] sortedTotals;
+
+    private final NameIndex productNames;
+
+    private RecordIndex(PurchaseTable table) {
+        this.table = table;
+        this.rowCount = table.size();
+        this.items = table.getItemDictionary();
+        this.categories = table.getCategoryDictionary();
+        this.vendors = table.getVendorDictionary();
+        this.sheets = table.getSheetDictionary();
+
+        int[] itemIds = new int[rowCount];
+        int[] categoryIds = new int[rowCount];
+        int[] vendorIds = new int[rowCount];
+        int[] sheetIds = new int[rowCount];
+        long[] totals = new long[rowCount];
+        long[] dayRows = new long[rowCount];
+        int dated = 0;
+        for (int row = 0; row < rowCount; row++) {
+            itemIds[row] = table.getItemId(row);
+            categoryIds[row] = table.getCategoryId(row);
+            vendorIds[row] = table.getVendorId(row);
+            sheetIds[row] = table.getSheetId(row);
+            totals[row] = table.getTotalCostCents(row);
+            int epochDay = table.getEpochDay(row);
+            if (epochDay != PurchaseTable.NO_DATE) {
+                dayRows[dated++] = ((long) epochDay << 32) | row; // Sorts by day, then row
+            }
+        }
+        this.itemRows = new Postings(itemIds, items.size());
+        this.categoryRows = new Postings(categoryIds, categories.size());
+        this.vendorRows = new Postings(vendorIds, vendors.size());
+        this.sheetRows = new Postings(sheetIds, sheets.size());
+
+        Arrays.sort(dayRows, 0, dated);
+        this.rowsByDay = new int[dated];
+        this.sortedDays = new int[dated];
+        for (int i = 0; i < dated; i++) {
+            sortedDays[i] = (int) (dayRows[i] >> 32);
+            rowsByDay[i] = (int) dayRows[i];
+        }
+
+        this.rowsByTotal = sortRowsByValue(totals);
+        this.sortedTotals = new long[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            sortedTotals[i] = totals[rowsByTotal[i]];
+        }
+
+        this.productNames = new NameIndex(items);
+    }
+
+    /**
+     * Row numbers ordered by value, then row. When the values span less than 2^31 (amounts up to
+     * about 21 million in cents) value and row are packed into one long and sorted as primitives.
+     */
+    private static int[] sortRowsByValue(long[] values) {
+        int[] rows = new int[values.length];
+        if (values.length == 0) {
+            return rows;
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long value : values) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        if (max - min >= 0 && max - min < Integer.MAX_VALUE) {
+            long[] packed = new long[values.length];
+            for (int row = 0; row < values.length; row++) {
+                packed[row] = ((values[row] - min) << 32) | row;
+            }
+            Arrays.sort(packed);
+            for (int i = 0; i < packed.length; i++) {
+                rows[i] = (int) packed[i];
+            }
+            return rows;
+        }
+        Integer[] order = new Integer[values.length];
+        for (int row = 0; row < order.length; row++) {
+            order[row] = row;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(values[a], values[b])); // Stable, so row order is kept
+        for (int i = 0; i < order.length; i++) {
+            rows[i] = order[i];
+        }
+        return rows;
+    }
+
+    /**
+     * Indexes every row of the table.
+     */
+    public static RecordIndex build(PurchaseTable table) {
+        return new RecordIndex(table);
+    }
+
+    /** Number of indexed rows. */
+    public int size() {
+        return rowCount;
+    }
+
+    /** The indexed table. */
+    public PurchaseTable getTable() {
+        return table;
+    }
+
+    public RowBitmap allRows() {
+        return RowBitmap.range(0, rowCount);
+    }
+
+    /** Rows whose product name is exactly the given name. */
+    public RowBitmap rowsWithProduct(String itemName) {
+        return itemRows.rows(items.find(itemName));
+    }
+
+    /** Rows whose category is exactly the given category. */
+    public RowBitmap rowsWithCategory(String category) {
+        return categoryRows.rows(categories.find(category));
+    }
+
+    /** Rows whose customer (vendor) is exactly the given name. */
+    public RowBitmap rowsWithCustomer(String vendor) {
+        return vendorRows.rows(vendors.find(vendor));
+    }
+
+    /** Rows read from the given sheet. */
+    public RowBitmap rowsFromSheet(String sheetName) {
+        return sheetRows.rows(sheets.find(sheetName));
+    }
+
+    /** Distinct customers that occur in the rows, sorted, e.g. for a filter drop-down. */
+    public List<String> getCustomers() {
+        return vendorRows.namesWithRows(vendors);
+    }
+
+    /** Distinct categories that occur in the rows, sorted. */
+    public List<String> getCategories() {
+        return categoryRows.namesWithRows(categories);
+    }
+
+    /**
+     * Rows dated between from and to, both inclusive. A null bound leaves that side open;
+     * rows without a date never match.
+     */
+    public RowBitmap rowsBetween(LocalDate from, LocalDate to) {
+        int start = from != null ? lowerBound(sortedDays, (int) from.toEpochDay()) : 0;
+        int end = to != null ? lowerBound(sortedDays, (int) to.toEpochDay() + 1) : sortedDays.length;
+        return RowBitmap.of(rowsByDay, start, end);
+    }
+
+    /**
+     * Rows whose total amount is between minCents and maxCents, both inclusive.
+     * Use Long.MIN_VALUE or Long.MAX_VALUE to leave a side open.
+     */
+    public RowBitmap rowsWithTotalBetween(long minCents, long maxCents) {
+        if (minCents > maxCents) {
+            return RowBitmap.empty();
+        }
+        int start = lowerBound(sortedTotals, minCents);
+        int end = maxCents == Long.MAX_VALUE ? sortedTotals.length : lowerBound(sortedTotals, maxCents + 1);
+        return RowBitmap.of(rowsByTotal, start, end);
+    }
+
+    /**
+     * Rows whose product name contains the text, ignoring case. One or two characters match
+     * names starting with the text; longer text matches anywhere in the name.
+     */
+    public RowBitmap searchProducts(String text) {
+        List<Integer> codes = productNames.search(text);
+        if (codes.size() == 1) {
+            return itemRows.rows(codes.get(0));
+        }
+        IntList rows = new IntList();
+        for (int code : codes) {
+            itemRows.addRows(code, rows);
+        }
+        return RowBitmap.of(rows.values, 0, rows.size);
+    }
+
+    /**
+     * Rows matching the query.
+     */
+    public RowBitmap query(PurchaseQuery query) {
+        return query.evaluate(this);
+    }
+
+    /**
+     * Rows matching every criterion set on the filter; all rows if none is set.
+     */
+    public RowBitmap filter(Filter filter) {
+        return query(filter.toQuery());
+    }
+
+    /**
+     * Count, revenue and units of the given rows, read straight from the table columns.
+     */
+    public Totals aggregate(RowBitmap rows) {
+        Totals totals = new Totals();
+        rows.forEach(row -> totals.add(table.getTotalCostCents(row), table.getQuantity(row)));
+        return totals;
+    }
+
+    /** Index of the first value that is at least key. */
+    private static int lowerBound(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Index of the first value that is at least key. */
+    private static int lowerBound(int[] sorted, int key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Row count, revenue (total cost in cents) and units of a set of rows.
+     */
+    public static class Totals {
+        private long count;
+        private long revenueCents;
+        private long minRevenueCents;
+        private long maxRevenueCents;
+        private long units;
+
+        private void add(long revenue, int quantity) {
+            if (count == 0 || revenue < minRevenueCents) {
+                minRevenueCents = revenue;
+            }
+            if (count == 0 || revenue > maxRevenueCents) {
+                maxRevenueCents = revenue;
+            }
+            count++;
+            revenueCents += revenue;
+            units += quantity;
+        }
+
+        public long getCount() { return count; }
+        public long getRevenueCents() { return revenueCents; }
+        /** Smallest row total, 0 without rows. */
+        public long getMinRevenueCents() { return minRevenueCents; }
+        /** Largest row total, 0 without rows. */
+        public long getMaxRevenueCents() { return maxRevenueCents; }
+        public long getUnits() { return units; }
+    }
+
+    /**
+     * Criteria for filter(); unset criteria (null) match everything.
+     */
+    public static class Filter {
+        private String productText;
+        private String customer;
+        private String category;
+        private LocalDate from;
+        private LocalDate to;
+
+        public String getProductText() { return productText; }
+        public Filter setProductText(String productText) { this.productText = productText; return this; }
+        public String getCustomer() { return customer; }
+        public Filter setCustomer(String customer) { this.customer = customer; return this; }
+        public String getCategory() { return category; }
+        public Filter setCategory(String category) { this.category = category; return this; }
+        public LocalDate getFrom() { return from; }
+        public Filter setFrom(LocalDate from) { this.from = from; return this; }
+        public LocalDate getTo() { return to; }
+        public Filter setTo(LocalDate to) { this.to = to; return this; }
+
+        /** True if any criterion is set. */
+        public boolean isSet() {
+            return (productText != null && !productText.trim().isEmpty()) || customer != null || category != null
+                    || from != null || to != null;
+        }
+
+        /**
+         * The criteria as a query: every set criterion and-ed together.
+         */
+        public PurchaseQuery toQuery() {
+            List<PurchaseQuery> parts = new ArrayList<>();
+            if (productText != null && !productText.trim().isEmpty()) {
+                parts.add(PurchaseQuery.productContains(productText.trim()));
+            }
+            if (customer != null) {
+                parts.add(PurchaseQuery.customer(customer));
+            }
+            if (category != null) {
+                parts.add(PurchaseQuery.category(category));
+            }
+            if (from != null || to != null) {
+                parts.add(PurchaseQuery.between(from, to));
+            }
+            return PurchaseQuery.and(parts.toArray(new PurchaseQuery[0]));
+        }
+    }
+
+    /**
+     * Rows grouped by dictionary code in compressed-row form: the rows of code c are
+     * rows[offsets[c]] to rows[offsets[c + 1] - 1], ascending.
+     */
+    private static class Postings {
+        private final int[] offsets;
+        private final int[] rows;
+
+        Postings(int[] codes, int codeCount) {
+            offsets = new int[codeCount + 1];
+            for (int code : codes) {
+                if (code != StringDictionary.NO_CODE) {
+                    offsets[code + 1]++;
+                }
+            }
+            for (int c = 0; c < codeCount; c++) {
+                offsets[c + 1] += offsets[c];
+            }
+            rows = new int[offsets[codeCount]];
+            int[] next = Arrays.copyOf(offsets, codeCount);
+            for (int row = 0; row < codes.length; row++) {
+                if (codes[row] != StringDictionary.NO_CODE) {
+                    rows[next[codes[row]]++] = row;
+                }
+            }
+        }
+
+        RowBitmap rows(int code) {
+            if (code < 0 || code >= offsets.length - 1) {
+                return RowBitmap.empty();
+            }
+            return RowBitmap.of(rows, offsets[code], offsets[code + 1]); // Already ascending
+        }
+
+        List<String> namesWithRows(StringDictionary names) {
+            List<String> result = new ArrayList<>();
+            for (int code = 0; code < offsets.length - 1; code++) {
+                if (offsets[code + 1] > offsets[code]) {
+                    result.add(names.get(code));
+                }
+            }
+            result.sort(String.CASE_INSENSITIVE_ORDER);
+            return result;
+        }
+
+        void addRows(int code, IntList result) {
+            if (code < 0 || code >= offsets.length - 1) {
+                return;
+            }
+            for (int i = offsets[code]; i < offsets[code + 1]; i++) {
+                result.add(rows[i]);
+            }
+        }
+    }
+
+    /**
+     * Case-insensitive search over the distinct names of a dictionary: prefix lookups by binary
+     * search over the sorted names, substring lookups through a trigram index.
+     */
+    private static class NameIndex {
+        private final String[] lowerNames; // By dictionary code
+        private final int[] codesByName;   // Codes sorted by lower-case name
+        private final Map<Long, int[]> trigramCodes = new HashMap<>(); // Ascending codes per trigram
+
+        NameIndex(StringDictionary names) {
+            int size = names.size();
+            lowerNames = new String[size];
+            Integer[] order = new Integer[size];
+            Map<Long, IntList> trigrams = new HashMap<>();
+            for (int code = 0; code < size; code++) {
+                lowerNames[code] = names.get(code).toLowerCase(Locale.ROOT);
+                order[code] = code;
+                String name = lowerNames[code];
+                for (int i = 0; i + 3 <= name.length(); i++) {
+                    // Codes arrive in ascending order, so a name repeating a trigram is added once
+                    trigrams.computeIfAbsent(trigram(name, i), k -> new IntList()).addIfNotLast(code);
+                }
+            }
+            Arrays.sort(order, (a, b) -> lowerNames[a].compareTo(lowerNames[b]));
+            codesByName = new int[size];
+            for (int i = 0; i < size; i++) {
+                codesByName[i] = order[i];
+            }
+            for (Map.Entry<Long, IntList> entry : trigrams.entrySet()) {
+                trigramCodes.put(entry.getKey(), entry.getValue().toArray());
+            }
+        }
+
+        /** Codes of the names matching the text, see RecordIndex.searchProducts. */
+        List<Integer> search(String text) {
+            String query = text.toLowerCase(Locale.ROOT);
+            List<Integer> matches = new ArrayList<>();
+            if (query.isEmpty()) {
+                return matches;
+            }
+            if (query.length() < 3) {
+                int low = 0;
+                int high = codesByName.length;
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (lowerNames[codesByName[mid]].compareTo(query) < 0) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                for (int i = low; i < codesByName.length && lowerNames[codesByName[i]].startsWith(query); i++) {
+                    matches.add(codesByName[i]);
+                }
+                return matches;
+            }
+
+            // Candidates contain every trigram of the query; the rarest trigram drives the scan
+            int[][] lists = new int[query.length() - 2][];
+            int rarest = 0;
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = trigramCodes.get(trigram(query, i));
+                if (lists[i] == null) {
+                    return matches;
+                }
+                if (lists[i].length < lists[rarest].length) {
+                    rarest = i;
+                }
+            }
+            for (int code : lists[rarest]) {
+                if (lowerNames[code].contains(query)) {
+                    matches.add(code);
+                }
+            }
+            return matches;
+        }
+
+        private static long trigram(String s, int i) {
+            return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+        }
+    }
+
+    /** Growable int array for building the trigram lists and row lists. */
+    private static class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addIfNotLast(int value) {
+            if (size == 0 || values[size - 1] != value) {
+                add(value);
+            }
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LoadMetrics that keeps phase times, row counts and the first errors in memory.
+ * Thread-safe; one instance can collect one load or several.
+ */
+public class RecordingLoadMetrics implements LoadMetrics {
+
+    /** Errors kept by default; later ones are only counted. */
+    public static final int DEFAULT_MAX_ERRORS = 100;
+
+    private static final LoadMetrics.Phase[] PHASES = LoadMetrics.Phase.values();
+
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(PHASES.length);
+    private final AtomicLongArray phaseCounts = new AtomicLongArray(PHASES.length);
+    private final AtomicInteger rowsOk = new AtomicInteger();
+    private final AtomicInteger rowsSkipped = new AtomicInteger();
+    private final AtomicInteger rowsErrored = new AtomicInteger();
+    private final AtomicInteger errorCount = new AtomicInteger();
+    private final List<String> errors = new ArrayList<>();
+    private final int maxErrors;
+
+    public RecordingLoadMetrics() {
+        this(DEFAULT_MAX_ERRORS);
+    }
+
+    /**
+     * @param maxErrors Number of error messages kept
+     */
+    public RecordingLoadMetrics(int maxErrors) {
+        if (maxErrors < 0) {
+            throw new IllegalArgumentException("Max errors cannot be negative, was " + maxErrors);
+        }
+        this.maxErrors = maxErrors;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void recordTime(Phase phase, long nanos, int count) {
+        phaseNanos.addAndGet(phase.ordinal(), nanos);
+        phaseCounts.addAndGet(phase.ordinal(), count);
+    }
+
+    @Override
+    public void recordRows(int ok, int skipped, int errored) {
+        rowsOk.addAndGet(ok);
+        rowsSkipped.addAndGet(skipped);
+        rowsErrored.addAndGet(errored);
+    }
+
+    @Override
+    public void recordError(String message) {
+        if (errorCount.getAndIncrement() < maxErrors) {
+            synchronized (errors) {
+                errors.add(message);
+            }
+        }
+    }
+
+    public long getMillis(Phase phase) {
+        return TimeUnit.NANOSECONDS.toMillis(phaseNanos.get(phase.ordinal()));
+    }
+
+    public long getNanos(Phase phase) {
+        return phaseNanos.get(phase.ordinal());
+    }
+
+    public long getCount(Phase phase) {
+        return phaseCounts.get(phase.ordinal());
+    }
+
+    public int getRowsOk() { return rowsOk.get(); }
+    public int getRowsSkipped() { return rowsSkipped.get(); }
+    public int getRowsErrored() { return rowsErrored.get(); }
+
+    /** All errors recorded, including the ones not kept. */
+    public int getErrorCount() { return errorCount.get(); }
+
+    /** The first errors, up to the limit given at construction. */
+    public List<String> getErrors() {
+        synchronized (errors) {
+            return Collections.unmodifiableList(new ArrayList<>(errors));
+        }
+    }
+
+    /**
+     * Human-readable summary: one line per phase, row counts and the kept errors.
+     */
+    public String toReport() {
+        StringBuilder sb = new StringBuilder();
+        for (Phase phase : PHASES) {
+            sb.append(String.format("%-16s %8d ms %10d ops%n", phase, getMillis(phase), getCount(phase)));
+        }
+        sb.append(String.format("Rows: %d ok, %d skipped, %d errored%n", getRowsOk(), getRowsSkipped(), getRowsErrored()));
+        List<String> kept = getErrors();
+        for (String error : kept) {
+            sb.append(error).append(System.lineSeparator());
+        }
+        if (getErrorCount() > kept.size()) {
+            sb.append("... ").append(getErrorCount() - kept.size()).append(" more errors").append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+}
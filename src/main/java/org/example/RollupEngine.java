@@ -0,0 +1,357 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Pre-aggregated sales summaries, built in a single pass over the records.
+ * Besides the whole-file totals it keeps one group-by cube per Dimension (product, customer,
+ * category, source sheet, day and month). Every cube cell holds the record count and the
+ * sum, min and max of revenue (total cost in cents) and units (quantity) in primitive arrays,
+ * so summary views and breakdowns read cells instead of going over the records again.
+ *
+ * Records can be added while a file is still loading. Not thread-safe: add from one thread
+ * and read once adding is done.
+ */
+public class RollupEngine {
+
+    /** What a cube groups by. */
+    public enum Dimension { PRODUCT, CUSTOMER, CATEGORY, SHEET, DAY, MONTH }
+
+    private final StringDictionary items;
+    private final StringDictionary categories;
+    private final StringDictionary vendors;
+    private final StringDictionary sheets;
+
+    private final Cube totals; // Single cell, key 0
+    private final Cube[] cubes = new Cube[Dimension.values().length];
+
+    // Month of the previous record's day; records usually come in date order
+    private int lastEpochDay = PurchaseTable.NO_DATE;
+    private int lastMonth;
+
+    /**
+     * Engine for records whose names are coded through its own dictionaries.
+     */
+    public RollupEngine() {
+        this(new PurchaseDictionaries());
+    }
+
+    /**
+     * Engine whose product, customer, category and sheet keys are codes of the given dictionaries.
+     */
+    public RollupEngine(PurchaseDictionaries dictionaries) {
+        this(dictionaries.getItems(), dictionaries.getCategories(), dictionaries.getVendors(), dictionaries.getSheets());
+    }
+
+    private RollupEngine(StringDictionary items, StringDictionary categories, StringDictionary vendors,
+                         StringDictionary sheets) {
+        this.items = items;
+        this.categories = categories;
+        this.vendors = vendors;
+        this.sheets = sheets;
+        totals = new Cube(Dimension.PRODUCT, null, 1);
+        cubes[Dimension.PRODUCT.ordinal()] = new Cube(Dimension.PRODUCT, items, 64);
+        cubes[Dimension.CUSTOMER.ordinal()] = new Cube(Dimension.CUSTOMER, vendors, 64);
+        cubes[Dimension.CATEGORY.ordinal()] = new Cube(Dimension.CATEGORY, categories, 64);
+        cubes[Dimension.SHEET.ordinal()] = new Cube(Dimension.SHEET, sheets, 4);
+        cubes[Dimension.DAY.ordinal()] = new Cube(Dimension.DAY, null, 256);
+        cubes[Dimension.MONTH.ordinal()] = new Cube(Dimension.MONTH, null, 16);
+    }
+
+    private RollupEngine(RollupEngine other) {
+        this.items = other.items.copy();
+        this.categories = other.categories.copy();
+        this.vendors = other.vendors.copy();
+        this.sheets = other.sheets.copy();
+        totals = new Cube(other.totals, null);
+        cubes[Dimension.PRODUCT.ordinal()] = new Cube(other.cubes[Dimension.PRODUCT.ordinal()], items);
+        cubes[Dimension.CUSTOMER.ordinal()] = new Cube(other.cubes[Dimension.CUSTOMER.ordinal()], vendors);
+        cubes[Dimension.CATEGORY.ordinal()] = new Cube(other.cubes[Dimension.CATEGORY.ordinal()], categories);
+        cubes[Dimension.SHEET.ordinal()] = new Cube(other.cubes[Dimension.SHEET.ordinal()], sheets);
+        cubes[Dimension.DAY.ordinal()] = new Cube(other.cubes[Dimension.DAY.ordinal()], null);
+        cubes[Dimension.MONTH.ordinal()] = new Cube(other.cubes[Dimension.MONTH.ordinal()], null);
+        lastEpochDay = other.lastEpochDay;
+        lastMonth = other.lastMonth;
+    }
+
+    /**
+     * Rolls up every row of a table, reading its primitive columns and dictionary codes directly.
+     */
+    public static RollupEngine compute(PurchaseTable table) {
+        RollupEngine engine = new RollupEngine(table.getItemDictionary(), table.getCategoryDictionary(),
+                table.getVendorDictionary(), table.getSheetDictionary());
+        for (int row = 0; row < table.size(); row++) {
+            engine.add(table.getItemId(row), table.getVendorId(row), table.getCategoryId(row), table.getSheetId(row),
+                    table.getEpochDay(row), table.getTotalCostCents(row), table.getQuantity(row));
+        }
+        return engine;
+    }
+
+    /**
+     * A copy that more records can be added to without changing this engine, with its own copies
+     * of the dictionaries. Costs one copy per cube cell and distinct name, not per record.
+     */
+    public RollupEngine copy() {
+        return new RollupEngine(this);
+    }
+
+    public void add(PurchaseRecord record) {
+        LocalDate date = record.getPurchaseDate();
+        add(items.code(record.getItemName()), vendors.code(record.getVendor()), categories.code(record.getCategory()),
+                sheets.code(record.getSourceSheet()), date != null ? (int) date.toEpochDay() : PurchaseTable.NO_DATE,
+                record.getTotalCostCents(), record.getQuantity());
+    }
+
+    public void addAll(Iterable<PurchaseRecord> records) {
+        for (PurchaseRecord record : records) {
+            add(record);
+        }
+    }
+
+    private void add(int itemId, int vendorId, int categoryId, int sheetId, int epochDay, long revenueCents, int units) {
+        totals.add(0, revenueCents, units);
+        addKeyed(Dimension.PRODUCT, itemId, revenueCents, units);
+        addKeyed(Dimension.CUSTOMER, vendorId, revenueCents, units);
+        addKeyed(Dimension.CATEGORY, categoryId, revenueCents, units);
+        addKeyed(Dimension.SHEET, sheetId, revenueCents, units);
+        if (epochDay != PurchaseTable.NO_DATE) {
+            if (epochDay != lastEpochDay) {
+                LocalDate date = LocalDate.ofEpochDay(epochDay);
+                lastMonth = date.getYear() * 12 + date.getMonthValue() - 1;
+                lastEpochDay = epochDay;
+            }
+            cubes[Dimension.DAY.ordinal()].add(epochDay, revenueCents, units);
+            cubes[Dimension.MONTH.ordinal()].add(lastMonth, revenueCents, units);
+        }
+    }
+
+    private void addKeyed(Dimension dimension, int code, long revenueCents, int units) {
+        if (code != StringDictionary.NO_CODE) {
+            cubes[dimension.ordinal()].add(code, revenueCents, units);
+        }
+    }
+
+    public Cube getCube(Dimension dimension) {
+        return cubes[dimension.ordinal()];
+    }
+
+    // Whole-file totals
+
+    public long getRecordCount() { return totals.size() > 0 ? totals.getCount(0) : 0; }
+    public long getRevenueCents() { return totals.size() > 0 ? totals.getRevenueSum(0) : 0; }
+    public long getMinRevenueCents() { return totals.size() > 0 ? totals.getRevenueMin(0) : 0; }
+    public long getMaxRevenueCents() { return totals.size() > 0 ? totals.getRevenueMax(0) : 0; }
+    public long getUnits() { return totals.size() > 0 ? totals.getUnitsSum(0) : 0; }
+    public long getMinUnits() { return totals.size() > 0 ? totals.getUnitsMin(0) : 0; }
+    public long getMaxUnits() { return totals.size() > 0 ? totals.getUnitsMax(0) : 0; }
+
+    /** Number of distinct non-blank product names. */
+    public int getUniqueProducts() { return getCube(Dimension.PRODUCT).getNonBlankSize(); }
+
+    /** Number of distinct non-blank customers (vendors). */
+    public int getUniqueCustomers() { return getCube(Dimension.CUSTOMER).getNonBlankSize(); }
+
+    /**
+     * One group-by cube: a cell per distinct key, in the order keys were first seen.
+     * Keys are dictionary codes for the text dimensions, epoch days for DAY and
+     * year * 12 + month - 1 for MONTH.
+     */
+    public static class Cube {
+        private final Dimension dimension;
+        private final StringDictionary labels; // Null for the date dimensions
+
+        // Open-addressing map from key to cell index
+        private int[] slots;
+        private int size = 0;
+
+        private int[] keys;
+        private long[] counts;
+        private long[] revenueSums;
+        private long[] revenueMins;
+        private long[] revenueMaxes;
+        private long[] unitsSums;
+        private long[] unitsMins;
+        private long[] unitsMaxes;
+
+        Cube(Dimension dimension, StringDictionary labels, int initialCapacity) {
+            this.dimension = dimension;
+            this.labels = labels;
+            int capacity = Math.max(1, initialCapacity);
+            this.slots = new int[Integer.highestOneBit(capacity * 2 - 1) * 2];
+            Arrays.fill(slots, -1);
+            this.keys = new int[capacity];
+            this.counts = new long[capacity];
+            this.revenueSums = new long[capacity];
+            this.revenueMins = new long[capacity];
+            this.revenueMaxes = new long[capacity];
+            this.unitsSums = new long[capacity];
+            this.unitsMins = new long[capacity];
+            this.unitsMaxes = new long[capacity];
+        }
+
+        private Cube(Cube other, StringDictionary labels) {
+            this.dimension = other.dimension;
+            this.labels = labels;
+            this.slots = other.slots.clone();
+            this.size = other.size;
+            this.keys = other.keys.clone();
+            this.counts = other.counts.clone();
+            this.revenueSums = other.revenueSums.clone();
+            this.revenueMins = other.revenueMins.clone();
+            this.revenueMaxes = other.revenueMaxes.clone();
+            this.unitsSums = other.unitsSums.clone();
+            this.unitsMins = other.unitsMins.clone();
+            this.unitsMaxes = other.unitsMaxes.clone();
+        }
+
+        void add(int key, long revenueCents, long units) {
+            int cell = cellFor(key);
+            if (counts[cell] == 0) {
+                revenueMins[cell] = revenueMaxes[cell] = revenueCents;
+                unitsMins[cell] = unitsMaxes[cell] = units;
+            } else {
+                revenueMins[cell] = Math.min(revenueMins[cell], revenueCents);
+                revenueMaxes[cell] = Math.max(revenueMaxes[cell], revenueCents);
+                unitsMins[cell] = Math.min(unitsMins[cell], units);
+                unitsMaxes[cell] = Math.max(unitsMaxes[cell], units);
+            }
+            counts[cell]++;
+            revenueSums[cell] += revenueCents;
+            unitsSums[cell] += units;
+        }
+
+        private int cellFor(int key) {
+            int mask = slots.length - 1;
+            for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+                int cell = slots[slot];
+                if (cell < 0) {
+                    cell = newCell(key);
+                    slots[slot] = cell;
+                    if (size * 2 > slots.length) {
+                        rehash(slots.length * 2);
+                    }
+                    return cell;
+                }
+                if (keys[cell] == key) {
+                    return cell;
+                }
+            }
+        }
+
+        private int newCell(int key) {
+            if (size == keys.length) {
+                int capacity = size * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+                revenueSums = Arrays.copyOf(revenueSums, capacity);
+                revenueMins = Arrays.copyOf(revenueMins, capacity);
+                revenueMaxes = Arrays.copyOf(revenueMaxes, capacity);
+                unitsSums = Arrays.copyOf(unitsSums, capacity);
+                unitsMins = Arrays.copyOf(unitsMins, capacity);
+                unitsMaxes = Arrays.copyOf(unitsMaxes, capacity);
+            }
+            keys[size] = key;
+            return size++;
+        }
+
+        private void rehash(int slotCount) {
+            slots = new int[slotCount];
+            Arrays.fill(slots, -1);
+            int mask = slotCount - 1;
+            for (int cell = 0; cell < size; cell++) {
+                int slot = mix(keys[cell]) & mask;
+                while (slots[slot] >= 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = cell;
+            }
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9; // Spread consecutive codes and days over the table
+            return h ^ (h >>> 16);
+        }
+
+        /**
+         * Cell index of a key, or -1 if no record had that key.
+         */
+        public int indexOf(int key) {
+            int mask = slots.length - 1;
+            for (int slot = mix(key) & mask; slots[slot] >= 0; slot = (slot + 1) & mask) {
+                if (keys[slots[slot]] == key) {
+                    return slots[slot];
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Cell indexes ordered by key, e.g. chronologically for DAY and MONTH.
+         */
+        public int[] cellsByKey() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(keys[a], keys[b]));
+            return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+        }
+
+        /**
+         * Cell indexes ordered by revenue, highest first.
+         */
+        public int[] cellsByRevenue() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(revenueSums[b], revenueSums[a]));
+            return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+        }
+
+        /**
+         * Readable key of a cell: the name for text dimensions, "2025-02-25" for DAY, "2025-02" for MONTH.
+         */
+        public String getLabel(int cell) {
+            int key = keys[cell];
+            switch (dimension) {
+                case DAY:
+                    return LocalDate.ofEpochDay(key).toString();
+                case MONTH:
+                    int month = Math.floorMod(key, 12) + 1;
+                    return Math.floorDiv(key, 12) + (month < 10 ? "-0" : "-") + month;
+                default:
+                    return labels.get(key);
+            }
+        }
+
+        int getNonBlankSize() {
+            int nonBlank = 0;
+            for (int cell = 0; cell < size; cell++) {
+                if (!getLabel(cell).trim().isEmpty()) {
+                    nonBlank++;
+                }
+            }
+            return nonBlank;
+        }
+
+        public Dimension getDimension() { return dimension; }
+        public int size() { return size; }
+        public int getKey(int cell) { return keys[checkCell(cell)]; }
+        public long getCount(int cell) { return counts[checkCell(cell)]; }
+        public long getRevenueSum(int cell) { return revenueSums[checkCell(cell)]; }
+        public long getRevenueMin(int cell) { return revenueMins[checkCell(cell)]; }
+        public long getRevenueMax(int cell) { return revenueMaxes[checkCell(cell)]; }
+        public long getUnitsSum(int cell) { return unitsSums[checkCell(cell)]; }
+        public long getUnitsMin(int cell) { return unitsMins[checkCell(cell)]; }
+        public long getUnitsMax(int cell) { return unitsMaxes[checkCell(cell)]; }
+
+        private int checkCell(int cell) {
+            if (cell < 0 || cell >= size) {
+                throw new IndexOutOfBoundsException("Cell " + cell + " out of range, size " + size);
+            }
+            return cell;
+        }
+    }
+}
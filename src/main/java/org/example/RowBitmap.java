@@ -0,0 +1,465 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed, immutable set of row ids, laid out like a Roaring bitmap.
+ * Row ids are split into chunks of 65536 by their high 16 bits. A chunk holding at most
+ * 4096 rows keeps them as a sorted array of the low 16 bits (2 bytes per row); a fuller chunk
+ * keeps a plain 8 KB bitmap. Sparse results such as "one customer" stay small, dense ones such
+ * as "not this category" cost at most one bit per row, and and/or/andNot work chunk by chunk.
+ *
+ * Operations return new bitmaps and never change their operands, so chunks are shared between
+ * results and a bitmap can be read from any thread.
+ */
+public final class RowBitmap {
+
+    // Chunks with more rows than this are stored as bitmaps
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int CHUNK_WORDS = 1024; // 65536 bits
+
+    private static final RowBitmap EMPTY = new RowBitmap(new char[0], new Chunk[0], 0);
+
+    private final char[] keys;     // High 16 bits of each chunk, ascending
+    private final Chunk[] chunks;
+    private final int size;        // Number of chunks in use
+    private final int cardinality;
+
+    private RowBitmap(char[] keys, Chunk[] chunks, int size) {
+        this.keys = keys;
+        this.chunks = chunks;
+        this.size = size;
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            count += chunks[i].cardinality;
+        }
+        this.cardinality = count;
+    }
+
+    public static RowBitmap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Rows from (inclusive) to (exclusive).
+     */
+    public static RowBitmap range(int from, int to) {
+        checkRow(from);
+        if (to <= from) {
+            return EMPTY;
+        }
+        long[] words = new long[((to - 1) >>> 6) + 1];
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        Arrays.fill(words, firstWord, lastWord + 1, -1L);
+        words[firstWord] &= -1L << from;
+        words[lastWord] &= -1L >>> -to;
+        return fromWords(words);
+    }
+
+    /**
+     * The given rows, in any order; duplicates are ignored.
+     */
+    public static RowBitmap of(int... rows) {
+        return of(rows, 0, rows.length);
+    }
+
+    /**
+     * Rows rows[from] to rows[to - 1], in any order; duplicates are ignored.
+     * Ascending input is packed directly, anything else goes through a temporary bitmap.
+     */
+    public static RowBitmap of(int[] rows, int from, int to) {
+        if (from >= to) {
+            return EMPTY;
+        }
+        int max = -1;
+        boolean ascending = true;
+        for (int i = from; i < to; i++) {
+            checkRow(rows[i]);
+            if (rows[i] <= max) {
+                ascending = false;
+            }
+            max = Math.max(max, rows[i]);
+        }
+        if (!ascending) {
+            long[] words = new long[(max >>> 6) + 1];
+            for (int i = from; i < to; i++) {
+                words[rows[i] >>> 6] |= 1L << rows[i];
+            }
+            return fromWords(words);
+        }
+
+        char[] keys = new char[(max >>> 16) + 1];
+        Chunk[] chunks = new Chunk[keys.length];
+        int size = 0;
+        for (int start = from; start < to; ) {
+            int key = rows[start] >>> 16;
+            int end = start;
+            while (end < to && rows[end] >>> 16 == key) {
+                end++;
+            }
+            keys[size] = (char) key;
+            chunks[size++] = Chunk.ofSorted(rows, start, end);
+            start = end;
+        }
+        return new RowBitmap(keys, chunks, size);
+    }
+
+    /**
+     * Rows whose bits are set in a java.util.BitSet style word array (bit i of words[i / 64] is row i).
+     */
+    static RowBitmap fromWords(long[] words) {
+        int chunkCount = (words.length + CHUNK_WORDS - 1) / CHUNK_WORDS;
+        char[] keys = new char[chunkCount];
+        Chunk[] chunks = new Chunk[chunkCount];
+        int size = 0;
+        for (int c = 0; c < chunkCount; c++) {
+            long[] chunkWords = Arrays.copyOfRange(words, c * CHUNK_WORDS, (c + 1) * CHUNK_WORDS);
+            Chunk chunk = Chunk.ofWords(chunkWords, Chunk.count(chunkWords));
+            if (chunk != null) {
+                keys[size] = (char) c;
+                chunks[size++] = chunk;
+            }
+        }
+        return new RowBitmap(keys, chunks, size);
+    }
+
+    public int getCardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    public boolean contains(int row) {
+        if (row < 0) {
+            return false;
+        }
+        int i = Arrays.binarySearch(keys, 0, size, (char) (row >>> 16));
+        return i >= 0 && chunks[i].contains((char) row);
+    }
+
+    /**
+     * Rows in both bitmaps.
+     */
+    public RowBitmap and(RowBitmap other) {
+        char[] resultKeys = new char[Math.min(size, other.size)];
+        Chunk[] resultChunks = new Chunk[resultKeys.length];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Chunk chunk = chunks[i].and(other.chunks[j]);
+                if (chunk != null) {
+                    resultKeys[n] = keys[i];
+                    resultChunks[n++] = chunk;
+                }
+                i++;
+                j++;
+            }
+        }
+        return new RowBitmap(resultKeys, resultChunks, n);
+    }
+
+    /**
+     * Rows in either bitmap.
+     */
+    public RowBitmap or(RowBitmap other) {
+        char[] resultKeys = new char[size + other.size];
+        Chunk[] resultChunks = new Chunk[resultKeys.length];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                resultKeys[n] = keys[i];
+                resultChunks[n++] = chunks[i++];
+            } else if (i == size || keys[i] > other.keys[j]) {
+                resultKeys[n] = other.keys[j];
+                resultChunks[n++] = other.chunks[j++];
+            } else {
+                resultKeys[n] = keys[i];
+                resultChunks[n++] = chunks[i++].or(other.chunks[j++]);
+            }
+        }
+        return new RowBitmap(resultKeys, resultChunks, n);
+    }
+
+    /**
+     * Rows in this bitmap but not in the other.
+     */
+    public RowBitmap andNot(RowBitmap other) {
+        char[] resultKeys = new char[size];
+        Chunk[] resultChunks = new Chunk[size];
+        int n = 0;
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            Chunk chunk = j < other.size && other.keys[j] == keys[i] ? chunks[i].andNot(other.chunks[j]) : chunks[i];
+            if (chunk != null) {
+                resultKeys[n] = keys[i];
+                resultChunks[n++] = chunk;
+            }
+        }
+        return new RowBitmap(resultKeys, resultChunks, n);
+    }
+
+    /**
+     * Rows below rowCount that are not in this bitmap.
+     */
+    public RowBitmap not(int rowCount) {
+        return range(0, rowCount).andNot(this);
+    }
+
+    /**
+     * Calls the action with every row, in ascending order.
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            chunks[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * The rows in ascending order.
+     */
+    public int[] toArray() {
+        int[] rows = new int[cardinality];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            n = chunks[i].copyTo(keys[i] << 16, rows, n);
+        }
+        return rows;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof RowBitmap && Arrays.equals(toArray(), ((RowBitmap) o).toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return "RowBitmap{" + cardinality + " rows in " + size + " chunks}";
+    }
+
+    private static void checkRow(int row) {
+        if (row < 0) {
+            throw new IllegalArgumentException("Row ids must not be negative: " + row);
+        }
+    }
+
+    /**
+     * The rows of one 65536-row chunk: a sorted array of low bits, or a bitmap when full.
+     * Set operations return null for an empty result.
+     */
+    private static final class Chunk {
+        private final char[] values; // Sorted low 16 bits; null for a bitmap chunk
+        private final long[] words;  // CHUNK_WORDS words; null for an array chunk
+        private final int cardinality;
+
+        private Chunk(char[] values, long[] words, int cardinality) {
+            this.values = values;
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        /** Chunk of the ascending rows[from..to), all with the same high bits. */
+        static Chunk ofSorted(int[] rows, int from, int to) {
+            int count = to - from;
+            if (count <= ARRAY_LIMIT) {
+                char[] values = new char[count];
+                for (int i = 0; i < count; i++) {
+                    values[i] = (char) rows[from + i];
+                }
+                return new Chunk(values, null, count);
+            }
+            long[] words = new long[CHUNK_WORDS];
+            for (int i = from; i < to; i++) {
+                words[(rows[i] >>> 6) & (CHUNK_WORDS - 1)] |= 1L << rows[i];
+            }
+            return new Chunk(null, words, count);
+        }
+
+        /** Chunk holding the set bits of words, in the smaller form; null if none is set. */
+        static Chunk ofWords(long[] words, int cardinality) {
+            if (cardinality == 0) {
+                return null;
+            }
+            if (cardinality > ARRAY_LIMIT) {
+                return new Chunk(null, words, cardinality);
+            }
+            char[] values = new char[cardinality];
+            int n = 0;
+            for (int w = 0; w < words.length; w++) {
+                for (long word = words[w]; word != 0; word &= word - 1) {
+                    values[n++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                }
+            }
+            return new Chunk(values, null, cardinality);
+        }
+
+        static int count(long[] words) {
+            int count = 0;
+            for (long word : words) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+
+        boolean contains(char value) {
+            if (words != null) {
+                return (words[value >>> 6] & (1L << value)) != 0;
+            }
+            return Arrays.binarySearch(values, value) >= 0;
+        }
+
+        Chunk and(Chunk other) {
+            if (words != null && other.words != null) {
+                long[] result = new long[CHUNK_WORDS];
+                for (int w = 0; w < CHUNK_WORDS; w++) {
+                    result[w] = words[w] & other.words[w];
+                }
+                return ofWords(result, count(result));
+            }
+            if (words != null) {
+                return other.and(this);
+            }
+            // This is an array: keep the values the other chunk also has
+            char[] result = new char[cardinality];
+            int n = 0;
+            if (other.words != null) {
+                for (char value : values) {
+                    if ((other.words[value >>> 6] & (1L << value)) != 0) {
+                        result[n++] = value;
+                    }
+                }
+            } else {
+                int j = 0;
+                for (int i = 0; i < cardinality && j < other.cardinality; ) {
+                    if (values[i] < other.values[j]) {
+                        i++;
+                    } else if (values[i] > other.values[j]) {
+                        j++;
+                    } else {
+                        result[n++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            }
+            return n == 0 ? null : new Chunk(Arrays.copyOf(result, n), null, n);
+        }
+
+        Chunk or(Chunk other) {
+            if (values != null && other.values != null && cardinality + other.cardinality <= ARRAY_LIMIT) {
+                char[] result = new char[cardinality + other.cardinality];
+                int n = 0;
+                int i = 0;
+                int j = 0;
+                while (i < cardinality || j < other.cardinality) {
+                    if (j == other.cardinality || (i < cardinality && values[i] < other.values[j])) {
+                        result[n++] = values[i++];
+                    } else if (i == cardinality || values[i] > other.values[j]) {
+                        result[n++] = other.values[j++];
+                    } else {
+                        result[n++] = values[i++];
+                        j++;
+                    }
+                }
+                return new Chunk(Arrays.copyOf(result, n), null, n);
+            }
+            long[] result = toWords();
+            other.setBits(result);
+            return ofWords(result, count(result));
+        }
+
+        Chunk andNot(Chunk other) {
+            if (values != null) {
+                char[] result = new char[cardinality];
+                int n = 0;
+                for (char value : values) {
+                    if (!other.contains(value)) {
+                        result[n++] = value;
+                    }
+                }
+                return n == 0 ? null : new Chunk(Arrays.copyOf(result, n), null, n);
+            }
+            long[] result = words.clone();
+            if (other.words != null) {
+                for (int w = 0; w < CHUNK_WORDS; w++) {
+                    result[w] &= ~other.words[w];
+                }
+            } else {
+                for (char value : other.values) {
+                    result[value >>> 6] &= ~(1L << value);
+                }
+            }
+            return ofWords(result, count(result));
+        }
+
+        /** A fresh bitmap of this chunk's rows. */
+        private long[] toWords() {
+            if (words != null) {
+                return words.clone();
+            }
+            long[] result = new long[CHUNK_WORDS];
+            setBits(result);
+            return result;
+        }
+
+        private void setBits(long[] target) {
+            if (words != null) {
+                for (int w = 0; w < CHUNK_WORDS; w++) {
+                    target[w] |= words[w];
+                }
+            } else {
+                for (char value : values) {
+                    target[value >>> 6] |= 1L << value;
+                }
+            }
+        }
+
+        void forEach(int base, IntConsumer action) {
+            if (values != null) {
+                for (char value : values) {
+                    action.accept(base | value);
+                }
+                return;
+            }
+            for (int w = 0; w < CHUNK_WORDS; w++) {
+                for (long word = words[w]; word != 0; word &= word - 1) {
+                    action.accept(base | (w << 6) | Long.numberOfTrailingZeros(word));
+                }
+            }
+        }
+
+        int copyTo(int base, int[] target, int n) {
+            if (values != null) {
+                for (char value : values) {
+                    target[n++] = base | value;
+                }
+                return n;
+            }
+            for (int w = 0; w < CHUNK_WORDS; w++) {
+                for (long word = words[w]; word != 0; word &= word - 1) {
+                    target[n++] = base | (w << 6) | Long.numberOfTrailingZeros(word);
+                }
+            }
+            return n;
+        }
+    }
+}
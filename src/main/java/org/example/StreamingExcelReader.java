@@ -0,0 +1,587 @@
+package org.example;
+
+import org.apache.poi.ooxml.POIXMLTypeLoader;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.xmlbeans.XmlException;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorkbook;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.WorkbookDocument;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Streaming (SAX) reader for large Excel files.
+ * Parses the first sheet straight from the .xlsx package without building the
+ * XSSFWorkbook object model, so memory stays flat no matter how many rows the file has.
+ * Columns are mapped through the same ColumnBindings ExcelReaderUtility uses.
+ *
+ * Formulas are not evaluated here - the result Excel saved with the file is used instead.
+ */
+public class StreamingExcelReader {
+
+    // Cell kinds tracked per streamed cell
+    private static final byte EMPTY = 0;
+    private static final byte STRING = 1;
+    private static final byte NUMBER = 2;
+    private static final byte BOOLEAN = 3;
+    private static final byte ERROR = 4;
+
+    // Records held back while waiting for a valid row; a longer run is taken to be data
+    static final int PENDING_LIMIT = 1024;
+
+    /**
+     * Reads an Excel file and collects its PurchaseRecords into a list.
+     *
+     * @param filePath Path to the Excel file
+     * @return List of PurchaseRecord objects
+     * @throws IOException if file cannot be read
+     */
+    public static List<PurchaseRecord> readExcelFile(String filePath) throws IOException {
+        List<PurchaseRecord> records = new ArrayList<>();
+        readExcelFile(filePath, records::add);
+        return records;
+    }
+
+    /**
+     * Reads an Excel file row by row and hands each PurchaseRecord to the consumer
+     * as soon as it is decoded.
+     *
+     * @param filePath Path to the Excel file
+     * @param consumer Receives each record in sheet order
+     * @return Number of records emitted
+     * @throws IOException if file cannot be read
+     */
+    public static int readExcelFile(String filePath, Consumer<PurchaseRecord> consumer) throws IOException {
+        return readExcelFile(filePath, consumer, new PurchaseDictionaries());
+    }
+
+    /**
+     * Reads an Excel file row by row, interning the text fields of each record into the
+     * given dictionaries before handing it to the consumer.
+     *
+     * @param filePath     Path to the Excel file
+     * @param consumer     Receives each record in sheet order
+     * @param dictionaries Dictionaries shared with other reads, e.g. across a batch
+     * @return Number of records emitted
+     * @throws IOException if file cannot be read
+     */
+    public static int readExcelFile(String filePath, Consumer<PurchaseRecord> consumer,
+                                    PurchaseDictionaries dictionaries) throws IOException {
+        return readExcelFile(filePath, consumer, dictionaries, LoadMetrics.NOOP);
+    }
+
+    /**
+     * Reads an Excel file row by row like readExcelFile(String, Consumer, PurchaseDictionaries),
+     * reporting timings, row counts and row errors to the metrics.
+     * Rows are decoded while the sheet XML is parsed, so SHEET_PARSE covers the decoding too.
+     *
+     * @param filePath     Path to the Excel file
+     * @param consumer     Receives each record in sheet order
+     * @param dictionaries Dictionaries shared with other reads, e.g. across a batch
+     * @param metrics      Receives phase times, row counts and row errors
+     * @return Number of records emitted
+     * @throws IOException if file cannot be read
+     */
+    public static int readExcelFile(String filePath, Consumer<PurchaseRecord> consumer,
+                                    PurchaseDictionaries dictionaries, LoadMetrics metrics) throws IOException {
+        long openStart = metrics.startTimer();
+        try (OPCPackage pkg = OPCPackage.open(filePath, PackageAccess.READ)) {
+            metrics.stopTimer(LoadMetrics.Phase.OPEN, openStart);
+
+            long parseStart = metrics.startTimer();
+            XSSFReader reader = new XSSFReader(pkg);
+            SharedStrings sharedStrings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new IOException("Excel file appears to be empty or has no header row");
+            }
+
+            DateDecoder dateDecoder = DateDecoder.of(isDate1904(reader));
+
+            SheetHandler handler = new SheetHandler(sharedStrings, styles, dateDecoder, consumer, dictionaries, metrics);
+            try (InputStream sheet = sheets.next()) {
+                handler.sheetName = sheets.getSheetName();
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(handler);
+                parser.parse(new InputSource(sheet));
+            }
+            handler.finish();
+            metrics.stopTimer(LoadMetrics.Phase.SHEET_PARSE, parseStart);
+            return handler.emitted;
+        } catch (SAXException | ParserConfigurationException | XmlException e) {
+            throw new IOException("Error parsing sheet: " + e.getMessage(), e);
+        } catch (OpenXML4JException e) {
+            throw new IOException("Error opening Excel file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Whether the workbook uses the 1904 date system (workbookPr date1904 in workbook.xml).
+     */
+    private static boolean isDate1904(XSSFReader reader) throws IOException, OpenXML4JException, XmlException {
+        try (InputStream workbookData = reader.getWorkbookData()) {
+            CTWorkbook workbook = WorkbookDocument.Factory.parse(workbookData, POIXMLTypeLoader.DEFAULT_XML_OPTIONS).getWorkbook();
+            return workbook.isSetWorkbookPr() && workbook.getWorkbookPr().getDate1904();
+        }
+    }
+
+    /**
+     * SAX handler for a single worksheet part.
+     * Keeps only the current row's cells; rows are decoded and released as soon as they end.
+     */
+    private static class SheetHandler extends DefaultHandler {
+        private final SharedStrings sharedStrings;
+        private final StylesTable styles;
+        private final DateDecoder dateDecoder;
+        private final LoadMetrics metrics;
+        private final Consumer<PurchaseRecord> consumer;
+        private final PurchaseDictionaries dictionaries;
+        private String sheetName; // Tagged onto every record
+
+        // Current row, reused between rows
+        private final StreamedRow row = new StreamedRow();
+        private int rowNum = -1;
+
+        // Current cell being parsed
+        private int cellColumn;
+        private String cellType;
+        private boolean cellIsDate;
+        private boolean cellHasFormula;
+        private boolean inValue;
+        private final StringBuilder value = new StringBuilder();
+
+        private ColumnBindings bindings;
+
+        // Records from rows that are not "valid data" rows (see hasValidData) are held back
+        // until the next valid row arrives, so trailing summary rows are dropped just like
+        // DataRange.detect does for the workbook reader. At most PENDING_LIMIT are held: a longer
+        // run (e.g. a sheet whose first column is never a date) is emitted, to keep memory flat.
+        private final List<PurchaseRecord> pending = new ArrayList<>();
+        private boolean seenValidRow = false;
+        private int emitted = 0;
+        private int dataRows = 0;
+        private int errored = 0;
+
+        SheetHandler(SharedStrings sharedStrings, StylesTable styles, DateDecoder dateDecoder,
+                     Consumer<PurchaseRecord> consumer, PurchaseDictionaries dictionaries, LoadMetrics metrics) {
+            this.sharedStrings = sharedStrings;
+            this.styles = styles;
+            this.dateDecoder = dateDecoder;
+            this.consumer = consumer;
+            this.dictionaries = dictionaries;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row":
+                    String r = attributes.getValue("r");
+                    rowNum = r != null ? Integer.parseInt(r) - 1 : rowNum + 1;
+                    row.clear();
+                    break;
+                case "c":
+                    cellColumn = columnIndex(attributes.getValue("r"), cellColumn);
+                    cellType = attributes.getValue("t");
+                    cellIsDate = isDateStyle(attributes.getValue("s"));
+                    cellHasFormula = false;
+                    value.setLength(0);
+                    break;
+                case "f":
+                    cellHasFormula = true;
+                    break;
+                case "v":
+                case "t":
+                    inValue = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) {
+                value.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "v":
+                case "t":
+                    inValue = false;
+                    break;
+                case "c":
+                    endCell();
+                    break;
+                case "row":
+                    endRow();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void endCell() {
+            if (value.length() == 0 && !cellHasFormula) {
+                return; // Styled but blank cell
+            }
+
+            String text = value.toString();
+            if (cellType == null || "n".equals(cellType)) {
+                if (text.isEmpty()) {
+                    // Formula without a saved result - the workbook reader would evaluate it
+                    row.set(cellColumn, STRING, "", Double.NaN, false, true);
+                } else {
+                    row.set(cellColumn, NUMBER, null, Double.parseDouble(text), cellIsDate, cellHasFormula);
+                }
+            } else {
+                switch (cellType) {
+                    case "s":
+                        String shared = sharedStrings.getItemAt(Integer.parseInt(text.trim())).getString();
+                        row.set(cellColumn, STRING, shared, Double.NaN, false, cellHasFormula);
+                        break;
+                    case "inlineStr":
+                    case "str":
+                        row.set(cellColumn, STRING, text, Double.NaN, false, cellHasFormula);
+                        break;
+                    case "b":
+                        row.set(cellColumn, BOOLEAN, "1".equals(text) ? "true" : "false", Double.NaN, false, cellHasFormula);
+                        break;
+                    case "e":
+                        row.set(cellColumn, ERROR, null, Double.NaN, false, cellHasFormula);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        private void endRow() throws SAXException {
+            if (bindings == null) {
+                if (rowNum != 0) {
+                    throw new SAXException("Excel file appears to be empty or has no header row");
+                }
+                bindings = ColumnBindings.resolve(createColumnMap(row));
+                return;
+            }
+
+            dataRows++;
+            if (row.isEmpty()) {
+                return;
+            }
+
+            PurchaseRecord record = null;
+            try {
+                record = createPurchaseRecord(row, bindings, dateDecoder);
+                // Only keep records that have essential data
+                if (record.getItemName() == null || record.getItemName().trim().isEmpty()) {
+                    record = null;
+                }
+            } catch (Exception e) {
+                errored++;
+                metrics.recordError("Error processing row " + (rowNum + 1) + ": " + e.getMessage());
+            }
+
+            if (row.hasValidData()) {
+                if (seenValidRow) {
+                    flushPending();
+                } else {
+                    pending.clear(); // Rows before the first valid row are not data
+                    seenValidRow = true;
+                }
+                emit(record);
+            } else if (record != null) {
+                pending.add(record);
+                if (pending.size() > PENDING_LIMIT) {
+                    flushPending();
+                }
+            }
+        }
+
+        void finish() throws IOException {
+            if (bindings == null) {
+                throw new IOException("Excel file appears to be empty or has no header row");
+            }
+            // Without any valid data row the workbook reader falls back to reading every row
+            if (!seenValidRow) {
+                flushPending();
+            }
+            pending.clear();
+            metrics.recordRows(emitted, dataRows - emitted - errored, errored);
+        }
+
+        private void flushPending() {
+            for (PurchaseRecord record : pending) {
+                emit(record);
+            }
+            pending.clear();
+        }
+
+        private void emit(PurchaseRecord record) {
+            if (record != null) {
+                record.setSourceSheet(sheetName);
+                dictionaries.intern(record);
+                consumer.accept(record);
+                emitted++;
+            }
+        }
+
+        private boolean isDateStyle(String styleIndex) {
+            if (styleIndex == null || styles == null) {
+                return false;
+            }
+            XSSFCellStyle style = styles.getStyleAt(Integer.parseInt(styleIndex));
+            return style != null && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+        }
+    }
+
+    /**
+     * Maps header names to column indices, same rules as ExcelReaderUtility.createColumnMap.
+     */
+    private static Map<String, Integer> createColumnMap(StreamedRow headerRow) {
+        Map<String, Integer> columnMap = new HashMap<>();
+        for (int i = 0; i < headerRow.size; i++) {
+            if (headerRow.kinds[i] == STRING && !headerRow.formulas[i]) {
+                columnMap.put(headerRow.texts[i].trim().toLowerCase(), i);
+            }
+        }
+        return columnMap;
+    }
+
+    /**
+     * Creates a PurchaseRecord from a streamed row, mirroring ExcelReaderUtility.createPurchaseRecord.
+     */
+    private static PurchaseRecord createPurchaseRecord(StreamedRow row, ColumnBindings bindings, DateDecoder dateDecoder) {
+        PurchaseRecord record = new PurchaseRecord();
+
+        record.setItemName(getStringValue(row, bindings.columnsFor(ColumnBindings.Field.ITEM_NAME)));
+        record.setPriceCents(getCentsValue(row, bindings.columnsFor(ColumnBindings.Field.PRICE)));
+        record.setQuantity(getIntValue(row, bindings.columnsFor(ColumnBindings.Field.QUANTITY)));
+        record.setPurchaseDate(getDateValue(row, bindings.columnsFor(ColumnBindings.Field.PURCHASE_DATE), dateDecoder));
+        record.setCategory(getStringValue(row, bindings.columnsFor(ColumnBindings.Field.CATEGORY)));
+        record.setVendor(getStringValue(row, bindings.columnsFor(ColumnBindings.Field.VENDOR)));
+        record.setTotalCostCents(getCentsValue(row, bindings.columnsFor(ColumnBindings.Field.TOTAL_COST)));
+
+        return record;
+    }
+
+    private static String getStringValue(StreamedRow row, int[] columns) {
+        for (int columnIndex : columns) {
+            String value = row.getString(columnIndex);
+            if (!value.isEmpty()) {
+                return value;
+            }
+        }
+        return "";
+    }
+
+    private static long getCentsValue(StreamedRow row, int[] columns) {
+        for (int columnIndex : columns) {
+            long cents = row.getCents(columnIndex);
+            if (cents != MoneyDecoder.NO_VALUE) {
+                return cents;
+            }
+        }
+        return 0;
+    }
+
+    private static int getIntValue(StreamedRow row, int[] columns) {
+        for (int columnIndex : columns) {
+            double numericValue = row.getNumber(columnIndex);
+            if (!Double.isNaN(numericValue)) {
+                return (int) numericValue;
+            }
+        }
+        return 0;
+    }
+
+    private static LocalDate getDateValue(StreamedRow row, int[] columns, DateDecoder dateDecoder) {
+        for (int columnIndex : columns) {
+            if (row.isDate(columnIndex)) {
+                return dateDecoder.toLocalDate(row.numbers[columnIndex]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses the column part of a cell reference like "AB12" into a 0-based index.
+     */
+    private static int columnIndex(String ref, int previous) {
+        if (ref == null) {
+            return previous + 1;
+        }
+        int column = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char c = ref.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    /**
+     * Cell values of one streamed row. Arrays grow to the widest row seen and are reused.
+     */
+    private static class StreamedRow {
+        private byte[] kinds = new byte[16];
+        private String[] texts = new String[16];
+        private double[] numbers = new double[16];
+        private boolean[] dates = new boolean[16];
+        private boolean[] formulas = new boolean[16];
+        private int size = 0;
+
+        void clear() {
+            Arrays.fill(kinds, 0, size, EMPTY);
+            Arrays.fill(texts, 0, size, null);
+            Arrays.fill(formulas, 0, size, false);
+            size = 0;
+        }
+
+        void set(int column, byte kind, String text, double number, boolean date, boolean formula) {
+            if (column >= kinds.length) {
+                int newLength = Math.max(column + 1, kinds.length * 2);
+                kinds = Arrays.copyOf(kinds, newLength);
+                texts = Arrays.copyOf(texts, newLength);
+                numbers = Arrays.copyOf(numbers, newLength);
+                dates = Arrays.copyOf(dates, newLength);
+                formulas = Arrays.copyOf(formulas, newLength);
+            }
+            kinds[column] = kind;
+            texts[column] = text;
+            numbers[column] = number;
+            dates[column] = date;
+            formulas[column] = formula;
+            size = Math.max(size, column + 1);
+        }
+
+        /**
+         * Same rule as ExcelReaderUtility.isRowEmpty: formula cells always count as content.
+         */
+        boolean isEmpty() {
+            for (int i = 0; i < size; i++) {
+                if (formulas[i]) {
+                    return false;
+                }
+                switch (kinds[i]) {
+                    case STRING:
+                        if (!texts[i].trim().isEmpty()) {
+                            return false;
+                        }
+                        break;
+                    case NUMBER:
+                    case BOOLEAN:
+                        return false;
+                    default:
+                        break;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Same rule as ExcelReaderUtility.hasValidData: a date/number in the first column
+         * and some text (longer than 2 chars) in columns 1-7.
+         */
+        boolean hasValidData() {
+            if (size == 0 || kinds[0] != NUMBER || (formulas[0] && !dates[0])) {
+                return false;
+            }
+            for (int i = 1; i < Math.min(8, size); i++) {
+                if (kinds[i] == STRING && !formulas[i]) {
+                    String value = texts[i].trim();
+                    if (!value.isEmpty() && value.length() > 2) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        String getString(int column) {
+            if (column >= size) {
+                return "";
+            }
+            switch (kinds[column]) {
+                case STRING:
+                    return formulas[column] ? texts[column] : texts[column].trim();
+                case NUMBER:
+                    if (dates[column] && !formulas[column]) {
+                        return DateUtil.getJavaDate(numbers[column]).toString();
+                    }
+                    return ExcelReaderUtility.formatNumber(numbers[column]);
+                case BOOLEAN:
+                    return texts[column];
+                default:
+                    return "";
+            }
+        }
+
+        double getNumber(int column) {
+            if (column >= size) {
+                return Double.NaN;
+            }
+            switch (kinds[column]) {
+                case NUMBER:
+                    return numbers[column];
+                case STRING:
+                    if (!formulas[column]) {
+                        try {
+                            return Double.parseDouble(texts[column].trim());
+                        } catch (NumberFormatException e) {
+                            // Not a number
+                        }
+                    }
+                    return Double.NaN;
+                default:
+                    return Double.NaN;
+            }
+        }
+
+        /**
+         * Same cells as getNumber, decoded straight to cents.
+         */
+        long getCents(int column) {
+            if (column >= size) {
+                return MoneyDecoder.NO_VALUE;
+            }
+            switch (kinds[column]) {
+                case NUMBER:
+                    return MoneyDecoder.toCents(numbers[column]);
+                case STRING:
+                    return formulas[column] ? MoneyDecoder.NO_VALUE : MoneyDecoder.parseCents(texts[column]);
+                default:
+                    return MoneyDecoder.NO_VALUE;
+            }
+        }
+
+        boolean isDate(int column) {
+            return column < size && kinds[column] == NUMBER && (dates[column] || !formulas[column]);
+        }
+    }
+}
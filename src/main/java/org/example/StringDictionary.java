@@ -0,0 +1,104 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary of distinct strings seen during one ingestion.
+ * intern() returns one canonical instance per distinct value so repeated names are stored
+ * once, and code() gives each distinct value a dense int id (0, 1, 2, ...).
+ *
+ * Thread-safe: parallel decoders can share one dictionary. Lookups are lock-free;
+ * only adding a new value takes a lock.
+ */
+public class StringDictionary {
+
+    /** Code returned for null. */
+    public static final int NO_CODE = -1;
+
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[64];
+    private int size = 0; // Guarded by this
+    private int blankCount = 0; // Guarded by this
+
+    /**
+     * Returns the canonical instance equal to value, adding value if it is new.
+     */
+    public String intern(String value) {
+        int code = code(value);
+        return code != NO_CODE ? values[code] : null;
+    }
+
+    /**
+     * Returns the id of value, assigning the next free id if it is new.
+     */
+    public int code(String value) {
+        if (value == null) {
+            return NO_CODE;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : add(value);
+    }
+
+    /**
+     * A dictionary with the same values and codes that can be added to without changing this one.
+     */
+    public synchronized StringDictionary copy() {
+        StringDictionary copy = new StringDictionary();
+        copy.codes.putAll(codes);
+        copy.values = Arrays.copyOf(values, values.length);
+        copy.size = size;
+        copy.blankCount = blankCount;
+        return copy;
+    }
+
+    /**
+     * Returns the id of value, or NO_CODE if it has never been added.
+     */
+    public int find(String value) {
+        if (value == null) {
+            return NO_CODE;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : NO_CODE;
+    }
+
+    private synchronized int add(String value) {
+        Integer existing = codes.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        int code = size++;
+        values[code] = value;
+        if (value.trim().isEmpty()) {
+            blankCount++;
+        }
+        // Publishing through the map makes the array write visible to threads that read the code
+        codes.put(value, code);
+        return code;
+    }
+
+    /**
+     * Returns the value for an id, or null for NO_CODE.
+     */
+    public String get(int code) {
+        return code != NO_CODE ? values[code] : null;
+    }
+
+    /**
+     * Number of distinct values, including blank ones.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Number of distinct values that are not blank.
+     */
+    public synchronized int nonBlankSize() {
+        return size - blankCount;
+    }
+}
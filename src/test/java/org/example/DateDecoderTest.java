@@ -0,0 +1,94 @@
+package org.example;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DateDecoderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void system1900KeepsThePhantomLeapDay() {
+        DateDecoder decoder = DateDecoder.SYSTEM_1900;
+        assertEquals(LocalDate.of(1900, 1, 1), decoder.toLocalDate(1));
+        assertEquals(LocalDate.of(1900, 2, 28), decoder.toLocalDate(59));
+        assertEquals(LocalDate.of(1900, 3, 1), decoder.toLocalDate(61));
+        assertEquals(LocalDate.of(2023, 3, 16), decoder.toLocalDate(45001));
+    }
+
+    @Test
+    void system1900MatchesPoi() {
+        for (int serial = 61; serial < 80_000; serial += 7) {
+            assertEquals(DateUtil.getLocalDateTime(serial, false).toLocalDate(),
+                    DateDecoder.SYSTEM_1900.toLocalDate(serial), "serial " + serial);
+        }
+    }
+
+    @Test
+    void system1904CountsFrom1904() {
+        assertEquals(LocalDate.of(1904, 1, 1), DateDecoder.SYSTEM_1904.toLocalDate(0));
+        for (int serial = 0; serial < 80_000; serial += 7) {
+            assertEquals(DateUtil.getLocalDateTime(serial, true).toLocalDate(),
+                    DateDecoder.SYSTEM_1904.toLocalDate(serial), "serial " + serial);
+        }
+    }
+
+    @Test
+    void dropsTheTimeOfDayButRoundsUpToMidnight() {
+        assertEquals(LocalDate.of(2023, 3, 16), DateDecoder.SYSTEM_1900.toLocalDate(45001.75));
+        assertEquals(LocalDate.of(2023, 3, 17), DateDecoder.SYSTEM_1900.toLocalDate(45001.999999999));
+    }
+
+    @Test
+    void invalidSerialsHaveNoDate() {
+        assertEquals(DateDecoder.NO_DATE, DateDecoder.SYSTEM_1900.toEpochDay(-1));
+        assertEquals(DateDecoder.NO_DATE, DateDecoder.SYSTEM_1900.toEpochDay(Double.NaN));
+        assertNull(DateDecoder.SYSTEM_1904.toLocalDate(-0.5));
+    }
+
+    @Test
+    void readersDecode1904Workbooks() throws Exception {
+        List<TestWorkbooks.RowData> rows = TestWorkbooks.rows(5, 1);
+        Path file = tempDir.resolve("mac.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            workbook.getCTWorkbook().addNewWorkbookPr().setDate1904(true);
+            TestWorkbooks.fill(workbook, workbook.createSheet("Purchases"), rows);
+            TestWorkbooks.save(workbook, file);
+        }
+
+        List<PurchaseRecord> loaded = ExcelReaderUtility.load(file.toString()).getRecords();
+        List<PurchaseRecord> streamed = StreamingExcelReader.readExcelFile(file.toString());
+        assertEquals(rows.size(), loaded.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(rows.get(i).date, loaded.get(i).getPurchaseDate());
+        }
+        assertEquals(TestWorkbooks.describe(loaded), TestWorkbooks.describe(streamed));
+    }
+
+    @Test
+    void blankDateFormattedCellHasNoDate() throws Exception {
+        List<TestWorkbooks.RowData> rows = new ArrayList<>(TestWorkbooks.rows(3, 2));
+        TestWorkbooks.RowData middle = rows.get(1);
+        rows.set(1, new TestWorkbooks.RowData(null, middle.product, middle.price, middle.quantity,
+                middle.customer, middle.category));
+        Path file = TestWorkbooks.write(tempDir.resolve("blank.xlsx"), rows);
+
+        List<PurchaseRecord> loaded = ExcelReaderUtility.load(file.toString()).getRecords();
+        List<PurchaseRecord> streamed = StreamingExcelReader.readExcelFile(file.toString());
+        assertEquals(3, loaded.size());
+        assertEquals(rows.get(0).date, loaded.get(0).getPurchaseDate());
+        assertNull(loaded.get(1).getPurchaseDate());
+        assertEquals(rows.get(2).date, loaded.get(2).getPurchaseDate());
+        assertEquals(TestWorkbooks.describe(loaded), TestWorkbooks.describe(streamed));
+    }
+}
@@ -0,0 +1,107 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static void assertSameAsFullLoad(Path file, ExcelReaderUtility.LoadResult result) throws Exception {
+        ExcelReaderUtility.LoadResult full = ExcelReaderUtility.load(file.toString());
+        assertEquals(TestWorkbooks.describe(full.getRecords()), TestWorkbooks.describe(result.getRecords()));
+        assertEquals(TestWorkbooks.describe(full.getAnalysis()), TestWorkbooks.describe(result.getAnalysis()));
+    }
+
+    @Test
+    void unchangedFileIsNotReadAgain() throws Exception {
+        Path file = TestWorkbooks.write(tempDir.resolve("history.xlsx"), TestWorkbooks.rows(50, 1));
+        IncrementalLoader loader = new IncrementalLoader(file.toString());
+
+        ExcelReaderUtility.LoadResult first = loader.load();
+        assertEquals(IncrementalLoader.Mode.FULL, loader.getLastMode());
+        assertEquals(50, loader.getNewRecordCount());
+
+        assertSame(first, loader.load());
+        assertEquals(IncrementalLoader.Mode.UNCHANGED, loader.getLastMode());
+        assertEquals(0, loader.getNewRecordCount());
+    }
+
+    @Test
+    void appendedRowsAreAddedToThePreviousResult() throws Exception {
+        List<TestWorkbooks.RowData> rows = new ArrayList<>(TestWorkbooks.rows(200, 2));
+        Path file = TestWorkbooks.write(tempDir.resolve("history.xlsx"), rows);
+        IncrementalLoader loader = new IncrementalLoader(file.toString());
+        ExcelReaderUtility.LoadResult first = loader.load();
+        List<String> firstRecords = TestWorkbooks.describe(first.getRecords());
+        int firstItems = first.getDictionaries().getItems().size();
+
+        // New rows bring a product name the first load has not seen
+        List<TestWorkbooks.RowData> more = TestWorkbooks.rows(30, 3);
+        TestWorkbooks.RowData last = more.get(29);
+        more.set(29, new TestWorkbooks.RowData(last.date, "Thingamajig", last.price, last.quantity,
+                last.customer, last.category));
+        rows.addAll(more);
+        TestWorkbooks.rewrite(file, rows);
+
+        ExcelReaderUtility.LoadResult appended = loader.load();
+        assertEquals(IncrementalLoader.Mode.APPENDED, loader.getLastMode());
+        assertEquals(30, loader.getNewRecordCount());
+        assertEquals(230, appended.getRecords().size());
+        assertSameAsFullLoad(file, appended);
+
+        // The earlier result, which a view may still show, is left as it was
+        assertEquals(firstRecords, TestWorkbooks.describe(first.getRecords()));
+        assertEquals(firstItems, first.getDictionaries().getItems().size());
+    }
+
+    @Test
+    void changedEarlierRowsForceAFullRead() throws Exception {
+        List<TestWorkbooks.RowData> rows = new ArrayList<>(TestWorkbooks.rows(100, 4));
+        Path file = TestWorkbooks.write(tempDir.resolve("history.xlsx"), rows);
+        IncrementalLoader loader = new IncrementalLoader(file.toString());
+        loader.load();
+
+        TestWorkbooks.RowData edited = rows.get(10);
+        rows.set(10, new TestWorkbooks.RowData(edited.date, edited.product, edited.price + 1, edited.quantity,
+                edited.customer, edited.category));
+        rows.addAll(TestWorkbooks.rows(5, 5));
+        TestWorkbooks.rewrite(file, rows);
+
+        ExcelReaderUtility.LoadResult result = loader.load();
+        assertEquals(IncrementalLoader.Mode.FULL, loader.getLastMode());
+        assertEquals(105, loader.getNewRecordCount());
+        assertSameAsFullLoad(file, result);
+    }
+
+    @Test
+    void removedRowsForceAFullRead() throws Exception {
+        List<TestWorkbooks.RowData> rows = TestWorkbooks.rows(60, 6);
+        Path file = TestWorkbooks.write(tempDir.resolve("history.xlsx"), rows);
+        IncrementalLoader loader = new IncrementalLoader(file.toString());
+        loader.load();
+
+        TestWorkbooks.rewrite(file, rows.subList(0, 40));
+        ExcelReaderUtility.LoadResult result = loader.load();
+        assertEquals(IncrementalLoader.Mode.FULL, loader.getLastMode());
+        assertEquals(40, result.getRecords().size());
+    }
+
+    @Test
+    void resetForcesAFullRead() throws Exception {
+        Path file = TestWorkbooks.write(tempDir.resolve("history.xlsx"), TestWorkbooks.rows(20, 7));
+        IncrementalLoader loader = new IncrementalLoader(file.toString());
+        loader.load();
+        loader.reset();
+        assertNull(loader.getResult());
+        loader.load();
+        assertEquals(IncrementalLoader.Mode.FULL, loader.getLastMode());
+    }
+}
@@ -0,0 +1,100 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyDecoderTest {
+
+    @Test
+    void roundsHalfUpAwayFromZero() {
+        assertEquals(101, MoneyDecoder.toCents(1.005));
+        assertEquals(100, MoneyDecoder.toCents(1.004));
+        assertEquals(268, MoneyDecoder.toCents(2.675));
+        assertEquals(13, MoneyDecoder.toCents(0.125));
+        assertEquals(-101, MoneyDecoder.toCents(-1.005));
+        assertEquals(-13, MoneyDecoder.toCents(-0.125));
+        assertEquals(0, MoneyDecoder.toCents(0.0));
+        assertEquals(3399, MoneyDecoder.toCents(33.99));
+    }
+
+    @Test
+    void matchesBigDecimalRounding() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            // Three decimals, so a third of the values sit exactly on a rounding tie
+            double value = (random.nextInt(20_000_000) - 10_000_000) / 1000.0;
+            long expected = BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            assertEquals(expected, MoneyDecoder.toCents(value), "value " + value);
+        }
+    }
+
+    @Test
+    void largeAmountsGoThroughBigDecimal() {
+        assertEquals(100_000_000_000_000_000L, MoneyDecoder.toCents(1e15));
+        assertEquals(-2_500_000_000_000_000L, MoneyDecoder.toCents(-2.5e13));
+        assertEquals(BigDecimal.valueOf(12345678901234.56).movePointRight(2).longValueExact(),
+                MoneyDecoder.toCents(12345678901234.56));
+    }
+
+    @Test
+    void overflowAndNonNumbersGiveNoValue() {
+        assertEquals(MoneyDecoder.NO_VALUE, MoneyDecoder.toCents(Double.NaN));
+        assertEquals(MoneyDecoder.NO_VALUE, MoneyDecoder.toCents(Double.POSITIVE_INFINITY));
+        assertEquals(MoneyDecoder.NO_VALUE, MoneyDecoder.toCents(Double.NEGATIVE_INFINITY));
+        assertEquals(MoneyDecoder.NO_VALUE, MoneyDecoder.toCents(1e17)); // 1e19 cents does not fit in a long
+        assertEquals(MoneyDecoder.NO_VALUE, MoneyDecoder.toCents(-1e300));
+    }
+
+    @Test
+    void bigDecimalAmounts() {
+        assertEquals(0, MoneyDecoder.toCents((BigDecimal) null));
+        assertEquals(1235, MoneyDecoder.toCents(new BigDecimal("12.345")));
+        assertEquals(-1235, MoneyDecoder.toCents(new BigDecimal("-12.345")));
+        assertThrows(ArithmeticException.class, () -> MoneyDecoder.toCents(new BigDecimal("1e30")));
+        assertEquals(new BigDecimal("12.34"), MoneyDecoder.toBigDecimal(1234));
+    }
+
+    @Test
+    void parsesPlainDecimals() {
+        assertEquals(3399, MoneyDecoder.parseCents("33.99"));
+        assertEquals(-1250, MoneyDecoder.parseCents(" -12.5 "));
+        assertEquals(400, MoneyDecoder.parseCents("+4"));
+        assertEquals(400, MoneyDecoder.parseCents("4."));
+        assertEquals(50, MoneyDecoder.parseCents(".5"));
+        assertEquals(101, MoneyDecoder.parseCents("1.005"));
+        assertEquals(100, MoneyDecoder.parseCents("1.0049"));
+        assertEquals(-101, MoneyDecoder.parseCents("-1.005"));
+    }
+
+    @Test
+    void parsesOtherNumbersThroughDouble() {
+        assertEquals(100_000, MoneyDecoder.parseCents("1e3"));
+        assertEquals(MoneyDecoder.NO_VALUE, MoneyDecoder.parseCents("Infinity"));
+        // More digits than fit in a long while parsing, and too large for cents afterwards
+        assertEquals(MoneyDecoder.NO_VALUE, MoneyDecoder.parseCents("99999999999999999999"));
+    }
+
+    @Test
+    void rejectsText() {
+        assertEquals(MoneyDecoder.NO_VALUE, MoneyDecoder.parseCents(""));
+        assertEquals(MoneyDecoder.NO_VALUE, MoneyDecoder.parseCents("   "));
+        assertEquals(MoneyDecoder.NO_VALUE, MoneyDecoder.parseCents("-"));
+        assertEquals(MoneyDecoder.NO_VALUE, MoneyDecoder.parseCents("abc"));
+        assertEquals(MoneyDecoder.NO_VALUE, MoneyDecoder.parseCents("1.2.3"));
+        assertEquals(MoneyDecoder.NO_VALUE, MoneyDecoder.parseCents("$5"));
+    }
+
+    @Test
+    void parseAgreesWithDoubleParsing() {
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            String text = String.valueOf((random.nextInt(2_000_000) - 1_000_000) / 1000.0);
+            assertEquals(MoneyDecoder.toCents(Double.parseDouble(text)), MoneyDecoder.parseCents(text), text);
+        }
+    }
+}
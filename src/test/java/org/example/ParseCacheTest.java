@@ -0,0 +1,108 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParseCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ParseCache cache() {
+        return new ParseCache(tempDir.resolve("cache"), 64L * 1024 * 1024);
+    }
+
+    private Path workbook(int rows, long seed) throws IOException {
+        return TestWorkbooks.write(tempDir.resolve("history.xlsx"), TestWorkbooks.rows(rows, seed));
+    }
+
+    private List<Path> entries() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir.resolve("cache"))) {
+            return files.filter(p -> p.toString().endsWith(".pcache")).collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void secondLoadComesFromTheCache() throws Exception {
+        Path file = workbook(300, 1);
+        ParseCache cache = cache();
+
+        ExcelReaderUtility.LoadResult parsed = cache.load(file.toString(), new ExcelReadOptions(), LoadProgressListener.NONE);
+        assertFalse(parsed.isFromCache());
+        ExcelReaderUtility.LoadResult cached = cache.load(file.toString(), new ExcelReadOptions(), LoadProgressListener.NONE);
+        assertTrue(cached.isFromCache());
+
+        assertEquals(TestWorkbooks.describe(parsed.getRecords()), TestWorkbooks.describe(cached.getRecords()));
+        assertEquals(TestWorkbooks.describe(parsed.getAnalysis()), TestWorkbooks.describe(cached.getAnalysis()));
+        assertEquals(parsed.getDictionaries().getItems().size(), cached.getDictionaries().getItems().size());
+        assertEquals(parsed.getDataRange().getLastRow(), cached.getDataRange().getLastRow());
+    }
+
+    @Test
+    void changedFileIsAMiss() throws Exception {
+        Path file = workbook(100, 2);
+        ParseCache cache = cache();
+        cache.load(file.toString(), new ExcelReadOptions(), LoadProgressListener.NONE);
+
+        TestWorkbooks.rewrite(file, TestWorkbooks.rows(120, 3));
+        assertNull(cache.get(file.toString()));
+        assertTrue(entries().isEmpty(), "stale snapshot is deleted");
+
+        ExcelReaderUtility.LoadResult result = cache.load(file.toString(), new ExcelReadOptions(), LoadProgressListener.NONE);
+        assertFalse(result.isFromCache());
+        assertEquals(120, result.getRecords().size());
+    }
+
+    @Test
+    void otherOptionsAreAMiss() throws Exception {
+        Path file = workbook(40, 4);
+        ParseCache cache = cache();
+        cache.load(file.toString(), new ExcelReadOptions(), LoadProgressListener.NONE);
+
+        assertNotNull(cache.get(file.toString()));
+        assertNull(cache.get(file.toString(), new ExcelReadOptions().setAllSheets(true)));
+    }
+
+    @Test
+    void corruptSnapshotsAreMisses() throws Exception {
+        Path file = workbook(80, 5);
+        ParseCache cache = cache();
+        cache.load(file.toString(), new ExcelReadOptions(), LoadProgressListener.NONE);
+        Path entry = entries().get(0);
+        byte[] bytes = Files.readAllBytes(entry);
+
+        // Cut off in the middle of the records
+        Files.write(entry, Arrays.copyOf(bytes, bytes.length / 2));
+        assertNull(cache.get(file.toString()));
+        assertFalse(Files.exists(entry));
+
+        // Not a snapshot at all
+        Files.createDirectories(entry.getParent());
+        Files.write(entry, new byte[]{1, 2, 3});
+        assertNull(cache.get(file.toString()));
+
+        ExcelReaderUtility.LoadResult result = cache.load(file.toString(), new ExcelReadOptions(), LoadProgressListener.NONE);
+        assertFalse(result.isFromCache());
+        assertEquals(80, result.getRecords().size());
+        assertTrue(cache.load(file.toString(), new ExcelReadOptions(), LoadProgressListener.NONE).isFromCache());
+    }
+
+    @Test
+    void invalidateRemovesTheSnapshot() throws Exception {
+        Path file = workbook(10, 6);
+        ParseCache cache = cache();
+        cache.load(file.toString(), new ExcelReadOptions(), LoadProgressListener.NONE);
+        cache.invalidate(file.toString());
+        assertNull(cache.get(file.toString()));
+    }
+}
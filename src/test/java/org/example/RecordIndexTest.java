@@ -0,0 +1,146 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordIndexTest {
+
+    private static List<PurchaseRecord> records;
+    private static RecordIndex index;
+
+    @BeforeAll
+    static void buildIndex() {
+        // More than one 65536-row chunk
+        records = TestWorkbooks.records(70_000, 11);
+        index = RecordIndex.build(PurchaseTable.from(records));
+    }
+
+    /** Rows matching the predicate, found by scanning every record. */
+    private static int[] scan(Predicate<PurchaseRecord> predicate) {
+        List<Integer> rows = new ArrayList<>();
+        for (int row = 0; row < records.size(); row++) {
+            if (predicate.test(records.get(row))) {
+                rows.add(row);
+            }
+        }
+        return rows.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static boolean dated(PurchaseRecord record, LocalDate from, LocalDate to) {
+        LocalDate date = record.getPurchaseDate();
+        return date != null && (from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to));
+    }
+
+    @Test
+    void equalityLookups() {
+        assertEquals(records.size(), index.size());
+        assertArrayEquals(scan(r -> r.getItemName().equals("Gadget")), index.rowsWithProduct("Gadget").toArray());
+        assertArrayEquals(scan(r -> r.getCategory().equals("Tools")), index.rowsWithCategory("Tools").toArray());
+        assertArrayEquals(scan(r -> r.getVendor().equals("Globex")), index.rowsWithCustomer("Globex").toArray());
+        assertArrayEquals(scan(r -> r.getSourceSheet().equals("2023")), index.rowsFromSheet("2023").toArray());
+        assertTrue(index.rowsWithProduct("No such product").isEmpty());
+    }
+
+    @Test
+    void dateRanges() {
+        LocalDate from = LocalDate.of(2023, 2, 10);
+        LocalDate to = LocalDate.of(2023, 11, 3);
+        assertArrayEquals(scan(r -> dated(r, from, to)), index.rowsBetween(from, to).toArray());
+        assertArrayEquals(scan(r -> dated(r, from, null)), index.rowsBetween(from, null).toArray());
+        assertArrayEquals(scan(r -> dated(r, null, to)), index.rowsBetween(null, to).toArray());
+        assertArrayEquals(scan(r -> dated(r, null, null)), index.rowsBetween(null, null).toArray());
+        assertArrayEquals(scan(r -> dated(r, from, from)), index.rowsBetween(from, from).toArray());
+    }
+
+    @Test
+    void totalRanges() {
+        assertArrayEquals(scan(r -> r.getTotalCostCents() >= 5000 && r.getTotalCostCents() <= 20_000),
+                index.rowsWithTotalBetween(5000, 20_000).toArray());
+        assertArrayEquals(scan(r -> true), index.rowsWithTotalBetween(Long.MIN_VALUE, Long.MAX_VALUE).toArray());
+        assertTrue(index.rowsWithTotalBetween(10, 5).isEmpty());
+    }
+
+    @Test
+    void productSearch() {
+        // Short text matches the start of the name, longer text anywhere in it
+        assertArrayEquals(scan(r -> r.getItemName().toLowerCase(Locale.ROOT).startsWith("g")),
+                index.searchProducts("G").toArray());
+        assertArrayEquals(scan(r -> r.getItemName().toLowerCase(Locale.ROOT).startsWith("do")),
+                index.searchProducts("do").toArray());
+        assertArrayEquals(scan(r -> r.getItemName().toLowerCase(Locale.ROOT).contains("dge")),
+                index.searchProducts("DGE").toArray());
+        assertTrue(index.searchProducts("xyz").isEmpty());
+    }
+
+    @Test
+    void combinedQueries() {
+        LocalDate from = LocalDate.of(2023, 1, 1);
+        PurchaseQuery query = PurchaseQuery.and(
+                PurchaseQuery.or(PurchaseQuery.customer("Acme Corp"), PurchaseQuery.category("Parts")),
+                PurchaseQuery.not(PurchaseQuery.product("Widget")),
+                PurchaseQuery.between(from, null),
+                PurchaseQuery.totalAbove(10_000));
+        assertArrayEquals(scan(r -> (r.getVendor().equals("Acme Corp") || r.getCategory().equals("Parts"))
+                        && !r.getItemName().equals("Widget")
+                        && dated(r, from, null)
+                        && r.getTotalCostCents() > 10_000),
+                index.query(query).toArray());
+
+        assertArrayEquals(scan(r -> dated(r, LocalDate.of(2023, 4, 1), LocalDate.of(2023, 6, 30))),
+                index.query(PurchaseQuery.quarter(2023, 2)).toArray());
+        assertArrayEquals(scan(r -> r.getTotalCostCents() < 500), index.query(PurchaseQuery.totalBelow(500)).toArray());
+        assertEquals(records.size(), index.query(PurchaseQuery.and()).getCardinality());
+        assertTrue(index.query(PurchaseQuery.or()).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> PurchaseQuery.quarter(2023, 5));
+    }
+
+    @Test
+    void filterMatchesTheEquivalentQuery() {
+        RecordIndex.Filter filter = new RecordIndex.Filter()
+                .setProductText("gad")
+                .setCustomer("Initech")
+                .setFrom(LocalDate.of(2022, 6, 1))
+                .setTo(LocalDate.of(2023, 6, 1));
+        assertArrayEquals(scan(r -> r.getItemName().toLowerCase(Locale.ROOT).contains("gad")
+                        && r.getVendor().equals("Initech")
+                        && dated(r, filter.getFrom(), filter.getTo())),
+                index.filter(filter).toArray());
+        assertEquals(records.size(), index.filter(new RecordIndex.Filter()).getCardinality());
+    }
+
+    @Test
+    void aggregateSumsTheRows() {
+        RowBitmap rows = index.rowsWithCategory("Hardware");
+        long count = 0;
+        long revenue = 0;
+        long units = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int row : rows.toArray()) {
+            PurchaseRecord record = records.get(row);
+            count++;
+            revenue += record.getTotalCostCents();
+            units += record.getQuantity();
+            min = Math.min(min, record.getTotalCostCents());
+            max = Math.max(max, record.getTotalCostCents());
+        }
+        RecordIndex.Totals totals = index.aggregate(rows);
+        assertEquals(count, totals.getCount());
+        assertEquals(revenue, totals.getRevenueCents());
+        assertEquals(units, totals.getUnits());
+        assertEquals(min, totals.getMinRevenueCents());
+        assertEquals(max, totals.getMaxRevenueCents());
+
+        RecordIndex.Totals none = index.aggregate(RowBitmap.empty());
+        assertEquals(0, none.getCount());
+        assertEquals(0, none.getMinRevenueCents());
+    }
+}
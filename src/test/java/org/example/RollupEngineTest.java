@@ -0,0 +1,140 @@
+package org.example;
+
+import org.example.RollupEngine.Cube;
+import org.example.RollupEngine.Dimension;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollupEngineTest {
+
+    /** Count, revenue sum/min/max and units sum/min/max of one group, in cube cell order. */
+    private static long[] stats(Cube cube, int cell) {
+        return new long[]{cube.getCount(cell), cube.getRevenueSum(cell), cube.getRevenueMin(cell),
+                cube.getRevenueMax(cell), cube.getUnitsSum(cell), cube.getUnitsMin(cell), cube.getUnitsMax(cell)};
+    }
+
+    /** The same statistics grouped with a HashMap; records with a null key are left out. */
+    private static Map<String, long[]> groupBy(List<PurchaseRecord> records, Function<PurchaseRecord, String> key) {
+        Map<String, long[]> groups = new HashMap<>();
+        for (PurchaseRecord record : records) {
+            String label = key.apply(record);
+            if (label == null) {
+                continue;
+            }
+            long revenue = record.getTotalCostCents();
+            long units = record.getQuantity();
+            long[] group = groups.get(label);
+            if (group == null) {
+                groups.put(label, new long[]{1, revenue, revenue, revenue, units, units, units});
+            } else {
+                group[0]++;
+                group[1] += revenue;
+                group[2] = Math.min(group[2], revenue);
+                group[3] = Math.max(group[3], revenue);
+                group[4] += units;
+                group[5] = Math.min(group[5], units);
+                group[6] = Math.max(group[6], units);
+            }
+        }
+        return groups;
+    }
+
+    private static void assertCube(Map<String, long[]> expected, Cube cube) {
+        assertEquals(expected.size(), cube.size(), cube.getDimension() + " cells");
+        for (int cell = 0; cell < cube.size(); cell++) {
+            String label = cube.getLabel(cell);
+            assertTrue(expected.containsKey(label), cube.getDimension() + " has unexpected cell " + label);
+            assertArrayEquals(expected.get(label), stats(cube, cell), cube.getDimension() + " " + label);
+            assertEquals(cell, cube.indexOf(cube.getKey(cell)));
+        }
+    }
+
+    private static void assertMatchesGroupBy(List<PurchaseRecord> records, RollupEngine engine) {
+        assertCube(groupBy(records, PurchaseRecord::getItemName), engine.getCube(Dimension.PRODUCT));
+        assertCube(groupBy(records, PurchaseRecord::getVendor), engine.getCube(Dimension.CUSTOMER));
+        assertCube(groupBy(records, PurchaseRecord::getCategory), engine.getCube(Dimension.CATEGORY));
+        assertCube(groupBy(records, PurchaseRecord::getSourceSheet), engine.getCube(Dimension.SHEET));
+        assertCube(groupBy(records, r -> r.getPurchaseDate() != null ? r.getPurchaseDate().toString() : null),
+                engine.getCube(Dimension.DAY));
+        assertCube(groupBy(records, r -> r.getPurchaseDate() != null ? r.getPurchaseDate().toString().substring(0, 7) : null),
+                engine.getCube(Dimension.MONTH));
+
+        long[] all = groupBy(records, r -> "all").get("all");
+        assertEquals(all[0], engine.getRecordCount());
+        assertEquals(all[1], engine.getRevenueCents());
+        assertEquals(all[2], engine.getMinRevenueCents());
+        assertEquals(all[3], engine.getMaxRevenueCents());
+        assertEquals(all[4], engine.getUnits());
+        assertEquals(groupBy(records, PurchaseRecord::getItemName).size(), engine.getUniqueProducts());
+        assertEquals(groupBy(records, PurchaseRecord::getVendor).size(), engine.getUniqueCustomers());
+    }
+
+    @Test
+    void cubesMatchAGroupBy() {
+        List<PurchaseRecord> records = TestWorkbooks.records(20_000, 17);
+        RollupEngine engine = new RollupEngine();
+        engine.addAll(records);
+        assertMatchesGroupBy(records, engine);
+    }
+
+    @Test
+    void computeFromTableMatchesAddingRecords() {
+        List<PurchaseRecord> records = TestWorkbooks.records(5_000, 19);
+        assertMatchesGroupBy(records, RollupEngine.compute(PurchaseTable.from(records)));
+    }
+
+    @Test
+    void cellOrders() {
+        List<PurchaseRecord> records = TestWorkbooks.records(2_000, 23);
+        RollupEngine engine = new RollupEngine();
+        engine.addAll(records);
+
+        Cube days = engine.getCube(Dimension.DAY);
+        int[] byKey = days.cellsByKey();
+        assertEquals(days.size(), byKey.length);
+        for (int i = 1; i < byKey.length; i++) {
+            assertTrue(LocalDate.parse(days.getLabel(byKey[i - 1])).isBefore(LocalDate.parse(days.getLabel(byKey[i]))));
+        }
+
+        Cube products = engine.getCube(Dimension.PRODUCT);
+        int[] byRevenue = products.cellsByRevenue();
+        for (int i = 1; i < byRevenue.length; i++) {
+            assertTrue(products.getRevenueSum(byRevenue[i - 1]) >= products.getRevenueSum(byRevenue[i]));
+        }
+        assertEquals(-1, days.indexOf(Integer.MIN_VALUE));
+    }
+
+    @Test
+    void copyIsIndependent() {
+        List<PurchaseRecord> first = TestWorkbooks.records(3_000, 29);
+        List<PurchaseRecord> more = TestWorkbooks.records(1_000, 31);
+        more.get(0).setItemName("New product");
+        RollupEngine engine = new RollupEngine();
+        engine.addAll(first);
+
+        RollupEngine copy = engine.copy();
+        copy.addAll(more);
+
+        assertMatchesGroupBy(first, engine);
+        List<PurchaseRecord> all = new ArrayList<>(first);
+        all.addAll(more);
+        assertMatchesGroupBy(all, copy);
+    }
+
+    @Test
+    void emptyEngine() {
+        RollupEngine engine = new RollupEngine();
+        assertEquals(0, engine.getRecordCount());
+        assertEquals(0, engine.getRevenueCents());
+        assertEquals(0, engine.getCube(Dimension.MONTH).size());
+        assertEquals(0, engine.getUniqueProducts());
+    }
+}
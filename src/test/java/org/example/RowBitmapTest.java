@@ -0,0 +1,117 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowBitmapTest {
+
+    // Four chunks of 65536 rows
+    private static final int ROWS = 4 * 65536;
+
+    /**
+     * Random rows with a different density per chunk, so operations mix array chunks (at most
+     * 4096 rows) with bitmap chunks and chunks present in only one operand.
+     */
+    private static BitSet randomRows(Random random, double... densities) {
+        BitSet rows = new BitSet();
+        for (int chunk = 0; chunk < densities.length; chunk++) {
+            for (int low = 0; low < 65536; low++) {
+                if (random.nextDouble() < densities[chunk]) {
+                    rows.set(chunk * 65536 + low);
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static RowBitmap toBitmap(BitSet rows) {
+        return RowBitmap.of(rows.stream().toArray());
+    }
+
+    private static void assertRows(BitSet expected, RowBitmap actual) {
+        assertArrayEquals(expected.stream().toArray(), actual.toArray());
+        assertEquals(expected.cardinality(), actual.getCardinality());
+        assertEquals(expected.isEmpty(), actual.isEmpty());
+    }
+
+    @Test
+    void combinesArrayAndBitmapChunks() {
+        Random random = new Random(3);
+        BitSet a = randomRows(random, 0.01, 0.5, 0.0, 0.9);
+        BitSet b = randomRows(random, 0.7, 0.02, 0.3, 0.0);
+        RowBitmap left = toBitmap(a);
+        RowBitmap right = toBitmap(b);
+
+        BitSet and = (BitSet) a.clone();
+        and.and(b);
+        assertRows(and, left.and(right));
+
+        BitSet or = (BitSet) a.clone();
+        or.or(b);
+        assertRows(or, left.or(right));
+
+        BitSet andNot = (BitSet) a.clone();
+        andNot.andNot(b);
+        assertRows(andNot, left.andNot(right));
+
+        BitSet not = new BitSet();
+        not.set(0, ROWS);
+        not.andNot(a);
+        assertRows(not, left.not(ROWS));
+    }
+
+    @Test
+    void operationsLeaveOperandsUnchanged() {
+        Random random = new Random(5);
+        BitSet a = randomRows(random, 0.5, 0.01);
+        BitSet b = randomRows(random, 0.01, 0.5);
+        RowBitmap left = toBitmap(a);
+        RowBitmap right = toBitmap(b);
+        left.and(right);
+        left.or(right);
+        left.andNot(right);
+        assertRows(a, left);
+        assertRows(b, right);
+    }
+
+    @Test
+    void buildsFromUnsortedRowsAndRanges() {
+        RowBitmap unsorted = RowBitmap.of(70000, 5, 5, 3, 65536);
+        assertArrayEquals(new int[]{3, 5, 65536, 70000}, unsorted.toArray());
+        assertTrue(unsorted.contains(65536));
+        assertFalse(unsorted.contains(4));
+
+        BitSet expected = new BitSet();
+        expected.set(100, 140_000);
+        assertRows(expected, RowBitmap.range(100, 140_000));
+        assertTrue(RowBitmap.range(10, 10).isEmpty());
+        assertEquals(RowBitmap.of(1, 2, 3), RowBitmap.range(1, 4));
+    }
+
+    @Test
+    void emptyOperands() {
+        RowBitmap rows = RowBitmap.of(1, 70000);
+        assertTrue(rows.and(RowBitmap.empty()).isEmpty());
+        assertEquals(rows, rows.or(RowBitmap.empty()));
+        assertEquals(rows, rows.andNot(RowBitmap.empty()));
+        assertTrue(RowBitmap.empty().andNot(rows).isEmpty());
+        assertTrue(rows.andNot(rows).isEmpty());
+    }
+
+    @Test
+    void forEachVisitsRowsInOrder() {
+        RowBitmap rows = RowBitmap.of(200_000, 7, 65535, 65536);
+        StringBuilder visited = new StringBuilder();
+        rows.forEach(row -> visited.append(row).append(' '));
+        assertEquals("7 65535 65536 200000 ", visited.toString());
+    }
+
+    @Test
+    void rejectsNegativeRows() {
+        assertThrows(IllegalArgumentException.class, () -> RowBitmap.of(-1));
+    }
+}
@@ -0,0 +1,175 @@
+package org.example;
+
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Small purchase-history workbooks for tests, in the column layout the readers expect.
+ */
+final class TestWorkbooks {
+
+    static final String[] HEADERS = {"Sale Date", "Product Name", "Unit Price", "Qty Sold", "Customer Name",
+            "Category", "Total Amount"};
+
+    private static final String[] PRODUCTS = {"Widget", "Gadget", "Sprocket", "Gizmo", "Doohickey"};
+    private static final String[] CUSTOMERS = {"Acme Corp", "Globex", "Initech", "Umbrella"};
+    private static final String[] CATEGORIES = {"Hardware", "Tools", "Parts"};
+
+    private TestWorkbooks() {
+    }
+
+    /**
+     * One data row. A null date leaves the date cell blank but still date-formatted.
+     */
+    static final class RowData {
+        final LocalDate date;
+        final String product;
+        final double price;
+        final int quantity;
+        final String customer;
+        final String category;
+
+        RowData(LocalDate date, String product, double price, int quantity, String customer, String category) {
+            this.date = date;
+            this.product = product;
+            this.price = price;
+            this.quantity = quantity;
+            this.customer = customer;
+            this.category = category;
+        }
+
+        double total() {
+            return price * quantity;
+        }
+    }
+
+    /**
+     * Rows with repeating products, customers and categories, one day apart from 2024-01-01.
+     */
+    static List<RowData> rows(int count, long seed) {
+        Random random = new Random(seed);
+        List<RowData> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new RowData(LocalDate.of(2024, 1, 1).plusDays(i),
+                    PRODUCTS[random.nextInt(PRODUCTS.length)],
+                    (1 + random.nextInt(5000)) / 100.0,
+                    1 + random.nextInt(20),
+                    CUSTOMERS[random.nextInt(CUSTOMERS.length)],
+                    CATEGORIES[random.nextInt(CATEGORIES.length)]));
+        }
+        return rows;
+    }
+
+    /**
+     * Records as the readers would produce them, spread over two sheets and three years.
+     * About one in twenty has no date.
+     */
+    static List<PurchaseRecord> records(int count, long seed) {
+        Random random = new Random(seed);
+        List<PurchaseRecord> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            PurchaseRecord record = new PurchaseRecord();
+            record.setItemName(PRODUCTS[random.nextInt(PRODUCTS.length)]);
+            record.setPriceCents(1 + random.nextInt(5000));
+            record.setQuantity(1 + random.nextInt(20));
+            if (random.nextInt(20) != 0) {
+                record.setPurchaseDate(LocalDate.of(2022, 1, 1).plusDays(random.nextInt(3 * 365)));
+            }
+            record.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            record.setVendor(CUSTOMERS[random.nextInt(CUSTOMERS.length)]);
+            record.setTotalCostCents(record.getPriceCents() * record.getQuantity());
+            record.setSourceSheet(random.nextBoolean() ? "2023" : "2024");
+            records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * Writes the rows to a single-sheet workbook. Dates are written as serial numbers with a date
+     * format, the way Excel saves them.
+     */
+    static Path write(Path file, List<RowData> rows) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            fill(workbook, workbook.createSheet("Purchases"), rows);
+            save(workbook, file);
+        }
+        return file;
+    }
+
+    /**
+     * Writes the rows again and moves the modification time forward, so readers that check size
+     * and time see a change even when the file was rewritten within the same second.
+     */
+    static Path rewrite(Path file, List<RowData> rows) throws IOException {
+        FileTime before = Files.getLastModifiedTime(file);
+        write(file, rows);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(before.toMillis() + 2000));
+        return file;
+    }
+
+    static void fill(Workbook workbook, Sheet sheet, List<RowData> rows) {
+        CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.createDataFormat().getFormat("m/d/yyyy"));
+
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < HEADERS.length; i++) {
+            header.createCell(i).setCellValue(HEADERS[i]);
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            RowData data = rows.get(i);
+            Row row = sheet.createRow(i + 1);
+            Cell date = row.createCell(0);
+            date.setCellStyle(dateStyle);
+            if (data.date != null) {
+                date.setCellValue(data.date);
+            }
+            row.createCell(1).setCellValue(data.product);
+            row.createCell(2).setCellValue(data.price);
+            row.createCell(3).setCellValue(data.quantity);
+            row.createCell(4).setCellValue(data.customer);
+            row.createCell(5).setCellValue(data.category);
+            row.createCell(6).setCellValue(data.total());
+        }
+    }
+
+    static void save(Workbook workbook, Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            workbook.write(out);
+        }
+    }
+
+    /**
+     * Records as their toString() lines, for comparing results of different readers.
+     */
+    static List<String> describe(List<PurchaseRecord> records) {
+        List<String> lines = new ArrayList<>();
+        for (PurchaseRecord record : records) {
+            lines.add(record.toString());
+        }
+        return lines;
+    }
+
+    /**
+     * Column statistics as one line per column. Sums are rounded to four decimals, since they may
+     * be added up in a different order.
+     */
+    static List<String> describe(ExcelReaderUtility.ExcelAnalysis analysis) {
+        List<String> lines = new ArrayList<>();
+        for (ExcelReaderUtility.ColumnInfo column : analysis.getColumns()) {
+            lines.add(column.getName() + " numeric=" + column.isNumeric() + " cells=" + column.getTotalCells()
+                    + " empty=" + column.getEmptyCells() + " numbers=" + column.getNumericCount()
+                    + String.format(" sum=%.4f", column.getSum()));
+        }
+        return lines;
+    }
+}